@@ -0,0 +1,2 @@
+javac -cp .;jmh-core-1.37.jar;jmh-generator-annprocess-1.37.jar ru\ifmo\ctddev\koroleva\arrayset\*.java ru\ifmo\ctddev\koroleva\arrayset\benchmark\*.java
+java -cp .;jmh-core-1.37.jar;jopt-simple-5.0.4.jar;commons-math3-3.6.1.jar ru.ifmo.ctddev.koroleva.arrayset.benchmark.BenchmarkRunner %1 %2 %3
\ No newline at end of file
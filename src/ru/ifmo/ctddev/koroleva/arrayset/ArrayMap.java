@@ -0,0 +1,407 @@
+package ru.ifmo.ctddev.koroleva.arrayset;
+
+import java.util.*;
+
+/**
+ * Immutable {@link NavigableMap} on sorted arrays.
+ * Keys are kept in an {@link ArraySet}, which does all navigation, and values are kept
+ * in an array parallel to the keys. Descending maps, key sets and sub-maps are views,
+ * which share both arrays and are created in O(1) or O(log n).
+ */
+public class ArrayMap<K, V> extends AbstractMap<K, V> implements NavigableMap<K, V> {
+    private final ArraySet<K> keys;
+    private final V[] values;
+    private final boolean descending;
+
+    private ArrayMap(ArraySet<K> keys, V[] values, boolean descending) {
+        super();
+        this.keys = keys;
+        this.values = values;
+        this.descending = descending;
+    }
+
+    public ArrayMap() {
+        this(new ArraySet<>(), ArrayMap.<V>newArray(0), false);
+    }
+
+    public ArrayMap(Map<? extends K, ? extends V> map) {
+        this(map, null);
+    }
+
+    /**
+     * Copies <tt>map</tt> into sorted arrays.
+     * If several keys are equal according to <tt>comparator</tt>, only the first of them is kept,
+     * the same way as {@link ArraySet} does it.
+     *
+     * @param map mappings to copy.
+     * @param comparator order of keys, <tt>null</tt> means natural order.
+     */
+    public ArrayMap(Map<? extends K, ? extends V> map, Comparator<? super K> comparator) {
+        super();
+        if (map == null) {
+            throw new NullPointerException();
+        }
+        Comparator<? super K> order = (comparator == null) ? ArraySet.naturalOrder() : comparator;
+        List<Entry<? extends K, ? extends V>> entries = new ArrayList<>(map.entrySet());
+        entries.sort((a, b) -> order.compare(a.getKey(), b.getKey()));
+
+        int current = 0;
+        for (int i = 1; i < entries.size(); i++) {
+            if (order.compare(entries.get(i).getKey(), entries.get(current).getKey()) != 0) {
+                entries.set(++current, entries.get(i));
+            }
+        }
+        if (!entries.isEmpty())
+            current++;
+
+        K[] keyData = newArray(current);
+        this.values = newArray(current);
+        for (int i = 0; i < current; i++) {
+            keyData[i] = entries.get(i).getKey();
+            this.values[i] = entries.get(i).getValue();
+        }
+        this.keys = new ArraySet<>(keyData, 0, current, order, comparator == null);
+        this.descending = false;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E> E[] newArray(int length) {
+        return (E[]) new Object[length];
+    }
+
+    private Entry<K, V> entry(int index) {
+        return (index < 0) ? null : new SimpleImmutableEntry<>(keys.elementAt(index), values[index]);
+    }
+
+    private int firstIndex() {
+        if (isEmpty())
+            return -1;
+        return descending ? keys.endIndex() - 1 : keys.startIndex();
+    }
+
+    private int lastIndex() {
+        if (isEmpty())
+            return -1;
+        return descending ? keys.startIndex() : keys.endIndex() - 1;
+    }
+
+    private int lowerIndex(K key) {
+        return descending ? keys.higherIndex(key) : keys.lowerIndex(key);
+    }
+
+    private int floorIndex(K key) {
+        return descending ? keys.ceilingIndex(key) : keys.floorIndex(key);
+    }
+
+    private int ceilingIndex(K key) {
+        return descending ? keys.floorIndex(key) : keys.ceilingIndex(key);
+    }
+
+    private int higherIndex(K key) {
+        return descending ? keys.lowerIndex(key) : keys.higherIndex(key);
+    }
+
+    @Override
+    public int size() {
+        return keys.size();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return keys.contains(key);
+    }
+
+    @Override
+    public V get(Object key) {
+        int index = keys.indexOfElement(key);
+        return (index < 0) ? null : values[index];
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<Entry<K, V>>() {
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                return new Iterator<Entry<K, V>>() {
+                    int position = firstIndex();
+                    int remaining = size();
+                    @Override
+                    public boolean hasNext() {
+                        return remaining > 0;
+                    }
+
+                    @Override
+                    public Entry<K, V> next() {
+                        if (!hasNext())
+                            throw new NoSuchElementException();
+                        Entry<K, V> result = entry(position);
+                        position += descending ? -1 : 1;
+                        remaining--;
+                        return result;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return ArrayMap.this.size();
+            }
+        };
+    }
+
+    @Override
+    public Entry<K, V> lowerEntry(K key) {
+        return entry(lowerIndex(key));
+    }
+
+    @Override
+    public K lowerKey(K key) {
+        return keys.elementAt(lowerIndex(key));
+    }
+
+    @Override
+    public Entry<K, V> floorEntry(K key) {
+        return entry(floorIndex(key));
+    }
+
+    @Override
+    public K floorKey(K key) {
+        return keys.elementAt(floorIndex(key));
+    }
+
+    @Override
+    public Entry<K, V> ceilingEntry(K key) {
+        return entry(ceilingIndex(key));
+    }
+
+    @Override
+    public K ceilingKey(K key) {
+        return keys.elementAt(ceilingIndex(key));
+    }
+
+    @Override
+    public Entry<K, V> higherEntry(K key) {
+        return entry(higherIndex(key));
+    }
+
+    @Override
+    public K higherKey(K key) {
+        return keys.elementAt(higherIndex(key));
+    }
+
+    @Override
+    public Entry<K, V> firstEntry() {
+        return entry(firstIndex());
+    }
+
+    @Override
+    public Entry<K, V> lastEntry() {
+        return entry(lastIndex());
+    }
+
+    @Override
+    public Entry<K, V> pollFirstEntry() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Entry<K, V> pollLastEntry() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public K firstKey() {
+        if (isEmpty())
+            throw new NoSuchElementException();
+        return keys.elementAt(firstIndex());
+    }
+
+    @Override
+    public K lastKey() {
+        if (isEmpty())
+            throw new NoSuchElementException();
+        return keys.elementAt(lastIndex());
+    }
+
+    @Override
+    public NavigableMap<K, V> descendingMap() {
+        return new ArrayMap<>(keys, values, !descending);
+    }
+
+    @Override
+    public Set<K> keySet() {
+        return navigableKeySet();
+    }
+
+    @Override
+    public NavigableSet<K> navigableKeySet() {
+        return descending ? new KeySet<>(this) : keys;
+    }
+
+    @Override
+    public NavigableSet<K> descendingKeySet() {
+        return descendingMap().navigableKeySet();
+    }
+
+    @Override
+    public NavigableMap<K, V> subMap(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+        ArraySet<K> range = descending
+                ? keys.subSet(toKey, toInclusive, fromKey, fromInclusive)
+                : keys.subSet(fromKey, fromInclusive, toKey, toInclusive);
+        return new ArrayMap<>(range, values, descending);
+    }
+
+    @Override
+    public NavigableMap<K, V> headMap(K toKey, boolean inclusive) {
+        ArraySet<K> range = descending ? keys.tailSet(toKey, inclusive) : keys.headSet(toKey, inclusive);
+        return new ArrayMap<>(range, values, descending);
+    }
+
+    @Override
+    public NavigableMap<K, V> tailMap(K fromKey, boolean inclusive) {
+        ArraySet<K> range = descending ? keys.headSet(fromKey, inclusive) : keys.tailSet(fromKey, inclusive);
+        return new ArrayMap<>(range, values, descending);
+    }
+
+    @Override
+    public Comparator<? super K> comparator() {
+        return descending ? Collections.reverseOrder(keys.comparator()) : keys.comparator();
+    }
+
+    @Override
+    public SortedMap<K, V> subMap(K fromKey, K toKey) {
+        return subMap(fromKey, true, toKey, false);
+    }
+
+    @Override
+    public SortedMap<K, V> headMap(K toKey) {
+        return headMap(toKey, false);
+    }
+
+    @Override
+    public SortedMap<K, V> tailMap(K fromKey) {
+        return tailMap(fromKey, true);
+    }
+
+    /**
+     * Key set of a descending map. Ascending maps return their {@link ArraySet} of keys instead.
+     */
+    private static class KeySet<K> extends AbstractSet<K> implements NavigableSet<K> {
+        private final NavigableMap<K, ?> map;
+
+        KeySet(NavigableMap<K, ?> map) {
+            this.map = map;
+        }
+
+        @Override
+        public K lower(K k) {
+            return map.lowerKey(k);
+        }
+
+        @Override
+        public K floor(K k) {
+            return map.floorKey(k);
+        }
+
+        @Override
+        public K ceiling(K k) {
+            return map.ceilingKey(k);
+        }
+
+        @Override
+        public K higher(K k) {
+            return map.higherKey(k);
+        }
+
+        @Override
+        public K pollFirst() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public K pollLast() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int size() {
+            return map.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return map.containsKey(o);
+        }
+
+        @Override
+        public Iterator<K> iterator() {
+            Iterator<? extends Entry<K, ?>> entries = map.entrySet().iterator();
+            return new Iterator<K>() {
+                @Override
+                public boolean hasNext() {
+                    return entries.hasNext();
+                }
+
+                @Override
+                public K next() {
+                    return entries.next().getKey();
+                }
+            };
+        }
+
+        @Override
+        public NavigableSet<K> descendingSet() {
+            return map.descendingMap().navigableKeySet();
+        }
+
+        @Override
+        public Iterator<K> descendingIterator() {
+            return descendingSet().iterator();
+        }
+
+        @Override
+        public NavigableSet<K> subSet(K fromElement, boolean fromInclusive, K toElement, boolean toInclusive) {
+            return map.subMap(fromElement, fromInclusive, toElement, toInclusive).navigableKeySet();
+        }
+
+        @Override
+        public NavigableSet<K> headSet(K toElement, boolean inclusive) {
+            return map.headMap(toElement, inclusive).navigableKeySet();
+        }
+
+        @Override
+        public NavigableSet<K> tailSet(K fromElement, boolean inclusive) {
+            return map.tailMap(fromElement, inclusive).navigableKeySet();
+        }
+
+        @Override
+        public Comparator<? super K> comparator() {
+            return map.comparator();
+        }
+
+        @Override
+        public SortedSet<K> subSet(K fromElement, K toElement) {
+            return subSet(fromElement, true, toElement, false);
+        }
+
+        @Override
+        public SortedSet<K> headSet(K toElement) {
+            return headSet(toElement, false);
+        }
+
+        @Override
+        public SortedSet<K> tailSet(K fromElement) {
+            return tailSet(fromElement, true);
+        }
+
+        @Override
+        public K first() {
+            return map.firstKey();
+        }
+
+        @Override
+        public K last() {
+            return map.lastKey();
+        }
+    }
+}
@@ -2,19 +2,40 @@ package ru.ifmo.ctddev.koroleva.arrayset;
 
 import java.lang.reflect.Array;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
 
 /**
  * Created by Яна on 19.02.2015.
  */
 public class ArraySet<T> extends AbstractSet<T> implements NavigableSet<T> {
+    /**
+     * Arrays at least this long are sorted with {@link Arrays#parallelSort} and deduplicated in parallel.
+     */
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    /*
+     * Search kernels. Sets in natural order don't call the Comparable wrapper on every step of
+     * a binary search: they call compareTo directly or, for String, Integer and Long elements,
+     * compare elements of exact type without any virtual calls to be inlined.
+     */
+    private static final int SEARCH_COMPARATOR = 0;
+    private static final int SEARCH_COMPARABLE = 1;
+    private static final int SEARCH_STRING = 2;
+    private static final int SEARCH_INTEGER = 3;
+    private static final int SEARCH_LONG = 4;
+
     private T[] data;
     private int size;
     private int left;
     private int right;
     private boolean flagNaturalOrder = false;
     private Comparator<? super T> comparator;
+    private LearnedIndex learnedIndex;
+    private HashIndex<T> hashIndex;
+    private int search = SEARCH_COMPARATOR;
 
-    private ArraySet(T[] array, int left, int right, Comparator<? super T> comparator) {
+    ArraySet(T[] array, int left, int right, Comparator<? super T> comparator, boolean flagNaturalOrder) {
         super();
         right = right < left ? left : right;
 
@@ -23,6 +44,8 @@ public class ArraySet<T> extends AbstractSet<T> implements NavigableSet<T> {
         this.right = right;
         this.size = right - left;
         this.comparator = comparator;
+        this.flagNaturalOrder = flagNaturalOrder;
+        chooseSearch();
     }
 
     public ArraySet(T[] array) {
@@ -38,6 +61,7 @@ public class ArraySet<T> extends AbstractSet<T> implements NavigableSet<T> {
 
     @SuppressWarnings("unchecked")
     public ArraySet() {
+        setComparator(null);
         this.data = (T[]) new Object[0];
         this.left = this.right = this.size = 0;
     }
@@ -61,81 +85,539 @@ public class ArraySet<T> extends AbstractSet<T> implements NavigableSet<T> {
     private void setComparator(Comparator<? super T> comparator) {
         if (comparator == null) {
             flagNaturalOrder = true;
-            this.comparator = new Comparator<T>() {
-                @Override
-                public int compare(T o1, T o2) {
-                    return ((Comparable<T>) o1).compareTo(o2);
-                }
-            };
+            this.comparator = naturalOrder();
         } else {
             this.comparator = comparator;
         }
     }
 
+    static <T> Comparator<T> naturalOrder() {
+        return new Comparator<T>() {
+            @SuppressWarnings("unchecked")
+            @Override
+            public int compare(T o1, T o2) {
+                return ((Comparable<T>) o1).compareTo(o2);
+            }
+        };
+    }
+
     @SuppressWarnings("unchecked")
     private void fromArrayToData(T[] array) {
         if (array == null) {
             throw new NullPointerException();
         }
 
-        Arrays.sort(array, this.comparator);
+        if (array.length >= PARALLEL_THRESHOLD) {
+            Arrays.parallelSort(array, this.comparator);
+            this.data = parallelUnique(array);
+        } else {
+            Arrays.sort(array, this.comparator);
 
-        int current = 0;
-        for (int i = 1; i < array.length; i++) {
-            if (this.comparator.compare(array[i], array[current]) != 0) {
-                array[++current] = array[i];
+            int current = 0;
+            for (int i = 1; i < array.length; i++) {
+                if (this.comparator.compare(array[i], array[current]) != 0) {
+                    array[++current] = array[i];
+                }
             }
-        }
-        if (array.length != 0)
-            current++;
+            if (array.length != 0)
+                current++;
 
-        this.data = (T[])Array.newInstance(array.getClass().getComponentType(), current);
-        System.arraycopy(array, 0, this.data, 0, current);
+            this.data = (T[])Array.newInstance(array.getClass().getComponentType(), current);
+            System.arraycopy(array, 0, this.data, 0, current);
+        }
         this.size = this.right = this.data.length;
         this.left = 0;
+        chooseSearch();
+    }
+
+    private void chooseSearch() {
+        if (!flagNaturalOrder) {
+            search = SEARCH_COMPARATOR;
+            return;
+        }
+        Class<?> token = (left < right) ? data[left].getClass() : null;
+        if (token == String.class) {
+            search = SEARCH_STRING;
+        } else if (token == Integer.class) {
+            search = SEARCH_INTEGER;
+        } else if (token == Long.class) {
+            search = SEARCH_LONG;
+        } else {
+            search = SEARCH_COMPARABLE;
+        }
+    }
+
+    /**
+     * Removes duplicates from sorted <tt>array</tt> in parallel, keeping the first element of each run of
+     * equal elements, just like the sequential loop does. Every chunk counts its run heads first,
+     * then prefix sums give each chunk its offset in the result, and chunks copy their heads independently.
+     */
+    @SuppressWarnings("unchecked")
+    private T[] parallelUnique(T[] array) {
+        int length = array.length;
+        int chunks = Runtime.getRuntime().availableProcessors() * 4;
+        int chunkSize = (length + chunks - 1) / chunks;
+        int[] offsets = new int[chunks + 1];
+
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            int from = Math.min(chunk * chunkSize, length);
+            int to = Math.min(from + chunkSize, length);
+            int count = 0;
+            for (int i = from; i < to; i++) {
+                if (i == 0 || comparator.compare(array[i - 1], array[i]) != 0) {
+                    count++;
+                }
+            }
+            offsets[chunk + 1] = count;
+        });
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            offsets[chunk + 1] += offsets[chunk];
+        }
+
+        T[] result = (T[]) Array.newInstance(array.getClass().getComponentType(), offsets[chunks]);
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            int from = Math.min(chunk * chunkSize, length);
+            int to = Math.min(from + chunkSize, length);
+            int position = offsets[chunk];
+            for (int i = from; i < to; i++) {
+                if (i == 0 || comparator.compare(array[i - 1], array[i]) != 0) {
+                    result[position++] = array[i];
+                }
+            }
+        });
+        return result;
     }
 
     @Override
     public T lower(T t) {
-        if (isEmpty())
-            return null;
-
-        int position = truePosition(t);
-        return (position == left) ? null : data[position - 1];
+        return elementAt(lowerIndex(t));
     }
 
     @Override
     public T floor(T t) {
-        if (isEmpty())
-            return null;
-
-        int position = truePosition(t);
-        if (position != right && comparator.compare(data[position], t) == 0)
-            return data[position];
-        return (position == left) ? null : data[position - 1];
+        return elementAt(floorIndex(t));
     }
 
     @Override
     public T ceiling(T t) {
-        int position = truePosition(t);
-        if(position == right)
-            return null;
-        return data[position];
+        return elementAt(ceilingIndex(t));
     }
 
     @Override
     public T higher(T t) {
+        return elementAt(higherIndex(t));
+    }
+
+    /*
+     * Index helpers below work with absolute positions in data and return -1 if there is no such element.
+     * They are shared with ArrayMap, which keeps its values in an array parallel to data.
+     */
+
+    int lowerIndex(T t) {
         int position = truePosition(t);
-        if (position == right) {
-            return null;
-        }
+        return (position == left) ? -1 : position - 1;
+    }
+
+    int floorIndex(T t) {
+        int position = truePosition(t);
+        if (position != right && comparator.compare(data[position], t) == 0)
+            return position;
+        return (position == left) ? -1 : position - 1;
+    }
+
+    int ceilingIndex(T t) {
+        int position = truePosition(t);
+        return (position == right) ? -1 : position;
+    }
+
+    int higherIndex(T t) {
+        int position = truePosition(t);
+        if (position == right)
+            return -1;
         if (comparator.compare(data[position], t) == 0)
-            return (position + 1 >= right) ? null : data[position + 1];
-        return data[position];
+            return (position + 1 >= right) ? -1 : position + 1;
+        return position;
+    }
+
+    @SuppressWarnings("unchecked")
+    int indexOfElement(Object o) {
+        if (hashIndex != null) {
+            int position = hashIndex.find(o);
+            return (position >= left && position < right) ? position : -1;
+        }
+        int position = truePosition((T) o);
+        return (position != right && comparator.compare(data[position], (T) o) == 0) ? position : -1;
+    }
+
+    int startIndex() {
+        return left;
+    }
+
+    int endIndex() {
+        return right;
+    }
+
+    T elementAt(int index) {
+        return (index < 0) ? null : data[index];
+    }
+
+    /**
+     * Copies elements with indices <tt>[from, to)</tt> of this set (view) into <tt>dest</tt>, starting at <tt>offset</tt>.
+     */
+    void copyRange(int from, int to, Object[] dest, int offset) {
+        System.arraycopy(data, left + from, dest, offset, to - from);
     }
 
     private int truePosition(T t) {
-        int position = Arrays.binarySearch(data, left, right, t, comparator);
+        if (learnedIndex != null && learnedIndex.accepts(t)) {
+            int position = learnedIndex.position(t);
+            return (position < left) ? left : (position > right) ? right : position;
+        }
+        int position;
+        if (search == SEARCH_STRING && t instanceof String) {
+            return stringPosition((String) t);
+        } else if (search == SEARCH_INTEGER && t instanceof Integer) {
+            return integerPosition((Integer) t);
+        } else if (search == SEARCH_LONG && t instanceof Long) {
+            return longPosition((Long) t);
+        } else if (search == SEARCH_COMPARABLE) {
+            position = Arrays.binarySearch(data, left, right, t);
+        } else {
+            position = Arrays.binarySearch(data, left, right, t, comparator);
+        }
+        if (position < 0) {
+            position = - position - 1;
+        }
+        return position;
+    }
+
+    private int stringPosition(String key) {
+        int low = left;
+        int high = right;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (((String) data[middle]).compareTo(key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private int integerPosition(int key) {
+        int low = left;
+        int high = right;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if ((Integer) data[middle] < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private int longPosition(long key) {
+        int low = left;
+        int high = right;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if ((Long) data[middle] < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns set with the same elements, which finds positions of elements with a piecewise-linear model
+     * of their distribution and a short binary search around the predicted position instead of
+     * a binary search over the whole array. The model is built in O(n) and takes less than a byte per element.
+     * Views of the returned set use the same model.
+     *
+     * Works only for <tt>Long</tt>, <tt>Integer</tt>, <tt>Short</tt> and <tt>Byte</tt> elements in natural order.
+     * If elements have other type or are distributed too unevenly for the model, the set itself is returned.
+     *
+     * @return set with learned index or this set.
+     */
+    public ArraySet<T> withLearnedIndex() {
+        if (!flagNaturalOrder || learnedIndex != null) {
+            return this;
+        }
+        LearnedIndex index = LearnedIndex.build(data, left, right);
+        if (index == null) {
+            return this;
+        }
+        ArraySet<T> result = view(left, right);
+        result.learnedIndex = index;
+        return result;
+    }
+
+    private ArraySet<T> view(int left, int right) {
+        ArraySet<T> result = new ArraySet<T>(this.data, left, right, this.comparator, this.flagNaturalOrder);
+        result.learnedIndex = this.learnedIndex;
+        result.hashIndex = this.hashIndex;
+        return result;
+    }
+
+    /**
+     * Returns set with the same elements, which also keeps a hash table of positions of its elements.
+     * {@link #contains} and {@link #indexOf} take O(1) expected time instead of a binary search,
+     * navigation methods still use binary search.
+     * The table is built in O(n) and takes 8 to 16 bytes per element. Views of the returned set use the same table.
+     *
+     * Works only for sets in natural order, whose elements have natural ordering consistent with <tt>equals</tt>,
+     * since the table finds elements by hash codes and the set compares them with its comparator.
+     * For sets with comparator the set itself is returned.
+     *
+     * @return set with hash index or this set, if it has comparator, already has index or is too large for it.
+     */
+    public ArraySet<T> withHashIndex() {
+        if (!flagNaturalOrder || hashIndex != null) {
+            return this;
+        }
+        HashIndex<T> index = HashIndex.build(data, left, right, comparator);
+        if (index == null) {
+            return this;
+        }
+        ArraySet<T> result = view(left, right);
+        result.hashIndex = index;
+        return result;
+    }
+
+    private int upperPosition(T t) {
+        int position = truePosition(t);
+        return (position != right && comparator.compare(data[position], t) == 0) ? position + 1 : position;
+    }
+
+    /**
+     * Returns element with given <tt>index</tt> in this set (view) in O(1).
+     *
+     * @param index index of element, from 0 to <tt>size() - 1</tt>.
+     * @return element with given index.
+     * @throws IndexOutOfBoundsException if index is out of range.
+     */
+    public T get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        }
+        return data[left + index];
+    }
+
+    /**
+     * Returns index of <tt>t</tt> in this set (view) in O(log n).
+     *
+     * @param t element to look for.
+     * @return index of element or <tt>-1</tt>, if there is no such element.
+     */
+    public int indexOf(T t) {
+        int index = indexOfElement(t);
+        return (index < 0) ? -1 : index - left;
+    }
+
+    /**
+     * Returns number of elements, which are strictly less than <tt>t</tt>, in O(log n).
+     *
+     * @param t element to compare with, it may be absent in the set.
+     * @return number of smaller elements.
+     */
+    public int rank(T t) {
+        return truePosition(t) - left;
+    }
+
+    /**
+     * Returns number of elements between <tt>fromElement</tt> and <tt>toElement</tt> in O(log n).
+     * Works the same way as <tt>subSet(fromElement, fromInclusive, toElement, toInclusive).size()</tt>.
+     *
+     * @param fromElement low endpoint.
+     * @param fromInclusive <tt>true</tt> if low endpoint is to be counted.
+     * @param toElement high endpoint.
+     * @param toInclusive <tt>true</tt> if high endpoint is to be counted.
+     * @return number of elements in range, <tt>0</tt> if range is empty.
+     */
+    public int countInRange(T fromElement, boolean fromInclusive, T toElement, boolean toInclusive) {
+        int from = fromInclusive ? truePosition(fromElement) : upperPosition(fromElement);
+        int to = toInclusive ? upperPosition(toElement) : truePosition(toElement);
+        return Math.max(0, to - from);
+    }
+
+    /**
+     * Performs <tt>action</tt> for elements with indices <tt>[from, to)</tt> of this set (view) in ascending order.
+     * Walks the backing array directly, without an iterator.
+     *
+     * @param from index of the first element, inclusive.
+     * @param to index of the last element, exclusive.
+     * @param action action to perform.
+     * @throws IndexOutOfBoundsException if <tt>from &lt; 0</tt>, <tt>to &gt; size()</tt> or <tt>from &gt; to</tt>.
+     */
+    public void forEachInRange(int from, int to, Consumer<? super T> action) {
+        if (from < 0 || to > size || from > to) {
+            throw new IndexOutOfBoundsException("Range: [" + from + ", " + to + "), size: " + size);
+        }
+        Objects.requireNonNull(action);
+        T[] array = data;
+        for (int i = left + from, end = left + to; i < end; i++) {
+            action.accept(array[i]);
+        }
+    }
+
+    /**
+     * Copies all elements of this set (view) in ascending order into <tt>dest</tt>, starting at <tt>offset</tt>.
+     *
+     * @param dest array to copy into.
+     * @param offset index in <tt>dest</tt> for the first element.
+     * @return <tt>dest</tt>.
+     * @throws IndexOutOfBoundsException if elements don't fit into <tt>dest</tt>.
+     * @throws ArrayStoreException if an element can't be stored into <tt>dest</tt>.
+     */
+    public T[] toArray(T[] dest, int offset) {
+        if (offset < 0 || offset > dest.length - size) {
+            throw new IndexOutOfBoundsException("Offset: " + offset + ", size: " + size + ", length: " + dest.length);
+        }
+        System.arraycopy(data, left, dest, offset, size);
+        return dest;
+    }
+
+    /**
+     * Returns unmodifiable list view of the elements of this set (view) in ascending order.
+     * The list is backed by the same array as the set, so it is created in O(1) and
+     * supports random access, bulk reads and sub-lists without copying.
+     *
+     * @return list of elements.
+     */
+    public List<T> asList() {
+        return Collections.unmodifiableList(Arrays.asList(data).subList(left, right));
+    }
+
+    @Override
+    public void forEach(Consumer<? super T> action) {
+        Objects.requireNonNull(action);
+        T[] array = data;
+        for (int i = left; i < right; i++) {
+            action.accept(array[i]);
+        }
+    }
+
+    @Override
+    public Object[] toArray() {
+        return Arrays.copyOfRange(data, left, right, Object[].class);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <E> E[] toArray(E[] a) {
+        if (a.length < size) {
+            return (E[]) Arrays.copyOfRange(data, left, right, a.getClass());
+        }
+        System.arraycopy(data, left, a, 0, size);
+        if (a.length > size) {
+            a[size] = null;
+        }
+        return a;
+    }
+
+    /**
+     * Checks all <tt>probes</tt> at once: <tt>out[i]</tt> is set to <tt>contains(probes[i])</tt>.
+     * Probes are visited in sorted order (they are sorted by index if they are not sorted already),
+     * and every next position is found by galloping from the previous one,
+     * so dense probes cost O(k + n) comparisons instead of O(k log n).
+     *
+     * @param probes elements to look for.
+     * @param out array for results, at least as long as <tt>probes</tt>.
+     */
+    public void containsAll(T[] probes, boolean[] out) {
+        if (out.length < probes.length) {
+            throw new IllegalArgumentException("Output array is too short");
+        }
+        sweep(probes, (probe, position) ->
+                out[probe] = position != right && comparator.compare(data[position], probes[probe]) == 0);
+    }
+
+    /**
+     * Finds ceilings of all <tt>probes</tt> at once: <tt>out[i]</tt> is set to <tt>ceiling(probes[i])</tt>.
+     *
+     * @param probes elements to look for.
+     * @param out array for results, at least as long as <tt>probes</tt>.
+     * @see #containsAll(Object[], boolean[])
+     */
+    public void ceilingAll(T[] probes, T[] out) {
+        if (out.length < probes.length) {
+            throw new IllegalArgumentException("Output array is too short");
+        }
+        sweep(probes, (probe, position) -> out[probe] = (position == right) ? null : data[position]);
+    }
+
+    private interface ProbeConsumer {
+        void accept(int probe, int position);
+    }
+
+    private void sweep(T[] probes, ProbeConsumer consumer) {
+        int[] order = probeOrder(probes);
+        int position = left;
+        for (int i = 0; i < probes.length; i++) {
+            int probe = (order == null) ? i : order[i];
+            position = gallop(probes[probe], position);
+            consumer.accept(probe, position);
+        }
+    }
+
+    /**
+     * Returns indices of <tt>probes</tt> in sorted order or <tt>null</tt>, if they are sorted already.
+     * Indices are sorted by a bottom-up merge sort on <tt>int</tt> arrays, so they are never boxed.
+     */
+    private int[] probeOrder(T[] probes) {
+        boolean sorted = true;
+        for (int i = 1; i < probes.length && sorted; i++) {
+            sorted = comparator.compare(probes[i - 1], probes[i]) <= 0;
+        }
+        if (sorted) {
+            return null;
+        }
+
+        int[] order = new int[probes.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        int[] buffer = new int[probes.length];
+        for (int width = 1; width < order.length; width *= 2) {
+            for (int from = 0; from < order.length; from += 2 * width) {
+                int middle = Math.min(from + width, order.length);
+                int to = Math.min(middle + width, order.length);
+                int l = from;
+                int r = middle;
+                int k = from;
+                while (l < middle && r < to) {
+                    buffer[k++] = (comparator.compare(probes[order[r]], probes[order[l]]) < 0) ? order[r++] : order[l++];
+                }
+                System.arraycopy(order, l, buffer, k, middle - l);
+                System.arraycopy(order, r, buffer, k + middle - l, to - r);
+            }
+            int[] swap = order;
+            order = buffer;
+            buffer = swap;
+        }
+        return order;
+    }
+
+    /**
+     * Same as {@link #truePosition}, but looks only at <tt>data[from, right)</tt> and
+     * checks exponentially growing steps first, so it is cheap if the answer is close to <tt>from</tt>.
+     */
+    private int gallop(T t, int from) {
+        if (from == right || comparator.compare(data[from], t) >= 0) {
+            return from;
+        }
+        int low = from;
+        int step = 1;
+        while (step < right - low && comparator.compare(data[low + step], t) < 0) {
+            low += step;
+            step <<= 1;
+        }
+        int position = Arrays.binarySearch(data, low + 1, Math.min(low + step, right), t, comparator);
         if (position < 0) {
             position = - position - 1;
         }
@@ -157,11 +639,9 @@ public class ArraySet<T> extends AbstractSet<T> implements NavigableSet<T> {
         return size;
     }
 
-    @SuppressWarnings("unchecked")
     @Override
     public boolean contains(Object o) {
-        int position = truePosition((T) o);
-        return position != right && comparator.compare(data[position], (T) o) == 0;
+        return indexOfElement(o) >= 0;
     }
 
     @Override
@@ -182,12 +662,82 @@ public class ArraySet<T> extends AbstractSet<T> implements NavigableSet<T> {
         };
     }
 
+    @Override
+    public Spliterator<T> spliterator() {
+        return new RangeSpliterator(left, right);
+    }
+
+    /**
+     * Spliterator over <tt>data[from, to)</tt>, which splits exactly in half and keeps
+     * all characteristics of the set in its halves.
+     */
+    private class RangeSpliterator implements Spliterator<T> {
+        private int from;
+        private final int to;
+
+        RangeSpliterator(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (action == null) {
+                throw new NullPointerException();
+            }
+            if (from < to) {
+                action.accept(data[from++]);
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            if (action == null) {
+                throw new NullPointerException();
+            }
+            T[] array = data;
+            int i = from;
+            from = to;
+            for (; i < to; i++) {
+                action.accept(array[i]);
+            }
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            int middle = (from + to) >>> 1;
+            if (middle <= from) {
+                return null;
+            }
+            Spliterator<T> prefix = new RangeSpliterator(from, middle);
+            from = middle;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return to - from;
+        }
+
+        @Override
+        public int characteristics() {
+            return SIZED | SUBSIZED | SORTED | DISTINCT | ORDERED | NONNULL | IMMUTABLE;
+        }
+
+        @Override
+        public Comparator<? super T> getComparator() {
+            return comparator();
+        }
+    }
+
     @SuppressWarnings("unchecked")
     @Override
-    public NavigableSet<T> descendingSet() {
+    public ArraySet<T> descendingSet() {
         T[] reverseData = (T[]) new Object[size];
         System.arraycopy(data, left, reverseData, 0, size);
-        NavigableSet<T> result = new ArraySet<T>(reverseData, Collections.reverseOrder(comparator));
+        ArraySet<T> result = new ArraySet<T>(reverseData, Collections.reverseOrder(comparator));
         return result;
     }
 
@@ -210,10 +760,10 @@ public class ArraySet<T> extends AbstractSet<T> implements NavigableSet<T> {
     }
 
     @Override
-    public NavigableSet<T> subSet(T fromElement, boolean fromInclusive, T toElement, boolean toInclusive) {
+    public ArraySet<T> subSet(T fromElement, boolean fromInclusive, T toElement, boolean toInclusive) {
         int left = truePosition(fromElement);
         if (left == this.right)
-            return new ArraySet<T>(this.data, left, left, this.comparator);
+            return view(left, left);
         if (comparator.compare(data[left], fromElement) == 0 && !fromInclusive) {
             left++;
         }
@@ -223,18 +773,18 @@ public class ArraySet<T> extends AbstractSet<T> implements NavigableSet<T> {
             right++;
         }
 
-        return new ArraySet<T>(this.data, left, right, this.comparator);
+        return view(left, right);
     }
 
     @Override
-    public NavigableSet<T> headSet(T toElement, boolean inclusive) {
+    public ArraySet<T> headSet(T toElement, boolean inclusive) {
         if (isEmpty())
             return this;
         return subSet(this.first(), true, toElement, inclusive);
     }
 
     @Override
-    public NavigableSet<T> tailSet(T fromElement, boolean inclusive) {
+    public ArraySet<T> tailSet(T fromElement, boolean inclusive) {
         if (isEmpty())
             return this;
         return subSet(fromElement, inclusive, this.last(), true);
@@ -246,19 +796,19 @@ public class ArraySet<T> extends AbstractSet<T> implements NavigableSet<T> {
     }
 
     @Override
-    public SortedSet<T> subSet(T fromElement, T toElement) {
+    public ArraySet<T> subSet(T fromElement, T toElement) {
         return subSet(fromElement, true, toElement, false);
     }
 
     @Override
-    public SortedSet<T> headSet(T toElement) {
+    public ArraySet<T> headSet(T toElement) {
         if (isEmpty())
             return this;
         return subSet(this.first(), toElement);
     }
 
     @Override
-    public SortedSet<T> tailSet(T fromElement) {
+    public ArraySet<T> tailSet(T fromElement) {
         if (isEmpty())
             return this;
         return subSet(fromElement, true, this.last(), true);
@@ -0,0 +1,301 @@
+package ru.ifmo.ctddev.koroleva.arrayset;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Thread-safe copy-on-write sorted set on top of {@link ArraySet}.
+ *
+ * Current contents are an immutable {@link ArraySet} behind a volatile reference, so reads take no locks
+ * and never wait for writers. Every modification builds a new array under a lock and publishes it at once,
+ * so batch modifications ({@link #addAll}, {@link #removeAll}, {@link #replaceWith}) cost a single copy.
+ * Iterators, descending sets and sub-sets work on the snapshot they were created from and never see later changes.
+ */
+public class ConcurrentArraySet<T> extends AbstractSet<T> implements NavigableSet<T> {
+    private final Comparator<? super T> comparator;
+    private final Comparator<? super T> order;
+    private final Object lock = new Object();
+    private volatile ArraySet<T> snapshot;
+
+    public ConcurrentArraySet() {
+        this(Collections.emptyList(), null);
+    }
+
+    public ConcurrentArraySet(Comparator<? super T> comparator) {
+        this(Collections.emptyList(), comparator);
+    }
+
+    public ConcurrentArraySet(Collection<T> collection) {
+        this(collection, null);
+    }
+
+    public ConcurrentArraySet(Collection<T> collection, Comparator<? super T> comparator) {
+        super();
+        this.comparator = comparator;
+        this.order = (comparator == null) ? ArraySet.naturalOrder() : comparator;
+        this.snapshot = new ArraySet<>(collection, comparator);
+    }
+
+    /**
+     * Returns current contents of the set. Returned set never changes.
+     *
+     * @return current snapshot.
+     */
+    public ArraySet<T> snapshot() {
+        return snapshot;
+    }
+
+    private ArraySet<T> wrap(Object[] array, int size) {
+        @SuppressWarnings("unchecked")
+        T[] data = (T[]) array;
+        return new ArraySet<>(data, 0, size, order, comparator == null);
+    }
+
+    /**
+     * Replaces all elements of the set with elements of <tt>collection</tt>.
+     * New array is sorted before taking the lock, so readers and other writers are not delayed by it.
+     *
+     * @param collection new elements.
+     */
+    public void replaceWith(Collection<T> collection) {
+        ArraySet<T> replacement = new ArraySet<>(collection, comparator);
+        synchronized (lock) {
+            snapshot = replacement;
+        }
+    }
+
+    @Override
+    public boolean add(T t) {
+        synchronized (lock) {
+            ArraySet<T> current = snapshot;
+            if (current.contains(t)) {
+                return false;
+            }
+            int position = current.rank(t);
+            Object[] array = new Object[current.size() + 1];
+            current.copyRange(0, position, array, 0);
+            array[position] = t;
+            current.copyRange(position, current.size(), array, position + 1);
+            snapshot = wrap(array, array.length);
+            return true;
+        }
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        synchronized (lock) {
+            ArraySet<T> current = snapshot;
+            @SuppressWarnings("unchecked")
+            int position = current.indexOf((T) o);
+            if (position < 0) {
+                return false;
+            }
+            Object[] array = new Object[current.size() - 1];
+            current.copyRange(0, position, array, 0);
+            current.copyRange(position + 1, current.size(), array, position);
+            snapshot = wrap(array, array.length);
+            return true;
+        }
+    }
+
+    /**
+     * Adds all elements of <tt>collection</tt> with a single copy of the array.
+     *
+     * @param collection elements to add.
+     * @return <tt>true</tt> if set was changed.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean addAll(Collection<? extends T> collection) {
+        ArraySet<T> additions = new ArraySet<>((Collection<T>) collection, comparator);
+        synchronized (lock) {
+            ArraySet<T> current = snapshot;
+            Object[] array = new Object[current.size() + additions.size()];
+            int i = 0;
+            int j = 0;
+            int size = 0;
+            while (i < current.size() || j < additions.size()) {
+                if (j == additions.size()) {
+                    array[size++] = current.get(i++);
+                } else if (i == current.size()) {
+                    array[size++] = additions.get(j++);
+                } else {
+                    int compare = order.compare(current.get(i), additions.get(j));
+                    if (compare <= 0) {
+                        array[size++] = current.get(i++);
+                        j += (compare == 0) ? 1 : 0;
+                    } else {
+                        array[size++] = additions.get(j++);
+                    }
+                }
+            }
+            if (size == current.size()) {
+                return false;
+            }
+            snapshot = wrap(array, size);
+            return true;
+        }
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> collection) {
+        return batchRemove(collection::contains);
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> collection) {
+        return batchRemove(element -> !collection.contains(element));
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super T> filter) {
+        Objects.requireNonNull(filter);
+        return batchRemove(filter);
+    }
+
+    private boolean batchRemove(Predicate<? super T> filter) {
+        synchronized (lock) {
+            ArraySet<T> current = snapshot;
+            Object[] array = new Object[current.size()];
+            int size = 0;
+            for (T element : current) {
+                if (!filter.test(element)) {
+                    array[size++] = element;
+                }
+            }
+            if (size == current.size()) {
+                return false;
+            }
+            snapshot = wrap(array, size);
+            return true;
+        }
+    }
+
+    @Override
+    public void clear() {
+        synchronized (lock) {
+            snapshot = wrap(new Object[0], 0);
+        }
+    }
+
+    @Override
+    public T pollFirst() {
+        synchronized (lock) {
+            ArraySet<T> current = snapshot;
+            if (current.isEmpty()) {
+                return null;
+            }
+            T result = current.first();
+            snapshot = current.tailSet(result, false);
+            return result;
+        }
+    }
+
+    @Override
+    public T pollLast() {
+        synchronized (lock) {
+            ArraySet<T> current = snapshot;
+            if (current.isEmpty()) {
+                return null;
+            }
+            T result = current.last();
+            snapshot = current.headSet(result, false);
+            return result;
+        }
+    }
+
+    @Override
+    public int size() {
+        return snapshot.size();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return snapshot.contains(o);
+    }
+
+    @Override
+    public T lower(T t) {
+        return snapshot.lower(t);
+    }
+
+    @Override
+    public T floor(T t) {
+        return snapshot.floor(t);
+    }
+
+    @Override
+    public T ceiling(T t) {
+        return snapshot.ceiling(t);
+    }
+
+    @Override
+    public T higher(T t) {
+        return snapshot.higher(t);
+    }
+
+    @Override
+    public T first() {
+        return snapshot.first();
+    }
+
+    @Override
+    public T last() {
+        return snapshot.last();
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return snapshot.iterator();
+    }
+
+    @Override
+    public Spliterator<T> spliterator() {
+        return snapshot.spliterator();
+    }
+
+    @Override
+    public Iterator<T> descendingIterator() {
+        return snapshot.descendingIterator();
+    }
+
+    @Override
+    public NavigableSet<T> descendingSet() {
+        return snapshot.descendingSet();
+    }
+
+    @Override
+    public NavigableSet<T> subSet(T fromElement, boolean fromInclusive, T toElement, boolean toInclusive) {
+        return snapshot.subSet(fromElement, fromInclusive, toElement, toInclusive);
+    }
+
+    @Override
+    public NavigableSet<T> headSet(T toElement, boolean inclusive) {
+        return snapshot.headSet(toElement, inclusive);
+    }
+
+    @Override
+    public NavigableSet<T> tailSet(T fromElement, boolean inclusive) {
+        return snapshot.tailSet(fromElement, inclusive);
+    }
+
+    @Override
+    public SortedSet<T> subSet(T fromElement, T toElement) {
+        return snapshot.subSet(fromElement, toElement);
+    }
+
+    @Override
+    public SortedSet<T> headSet(T toElement) {
+        return snapshot.headSet(toElement);
+    }
+
+    @Override
+    public SortedSet<T> tailSet(T fromElement) {
+        return snapshot.tailSet(fromElement);
+    }
+
+    @Override
+    public Comparator<? super T> comparator() {
+        return comparator;
+    }
+}
@@ -0,0 +1,116 @@
+package ru.ifmo.ctddev.koroleva.arrayset;
+
+import java.util.*;
+
+/**
+ * Reversed view of a navigable set. It shares the set and answers every query
+ * with the opposite query on it, so it is created in O(1) and takes no extra memory.
+ */
+class DescendingSet<T> extends AbstractSet<T> implements NavigableSet<T> {
+    private final NavigableSet<T> set;
+
+    DescendingSet(NavigableSet<T> set) {
+        super();
+        this.set = set;
+    }
+
+    @Override
+    public T lower(T t) {
+        return set.higher(t);
+    }
+
+    @Override
+    public T floor(T t) {
+        return set.ceiling(t);
+    }
+
+    @Override
+    public T ceiling(T t) {
+        return set.floor(t);
+    }
+
+    @Override
+    public T higher(T t) {
+        return set.lower(t);
+    }
+
+    @Override
+    public T pollFirst() {
+        return set.pollLast();
+    }
+
+    @Override
+    public T pollLast() {
+        return set.pollFirst();
+    }
+
+    @Override
+    public int size() {
+        return set.size();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return set.contains(o);
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return set.descendingIterator();
+    }
+
+    @Override
+    public NavigableSet<T> descendingSet() {
+        return set;
+    }
+
+    @Override
+    public Iterator<T> descendingIterator() {
+        return set.iterator();
+    }
+
+    @Override
+    public NavigableSet<T> subSet(T fromElement, boolean fromInclusive, T toElement, boolean toInclusive) {
+        return new DescendingSet<>(set.subSet(toElement, toInclusive, fromElement, fromInclusive));
+    }
+
+    @Override
+    public NavigableSet<T> headSet(T toElement, boolean inclusive) {
+        return new DescendingSet<>(set.tailSet(toElement, inclusive));
+    }
+
+    @Override
+    public NavigableSet<T> tailSet(T fromElement, boolean inclusive) {
+        return new DescendingSet<>(set.headSet(fromElement, inclusive));
+    }
+
+    @Override
+    public Comparator<? super T> comparator() {
+        return Collections.reverseOrder(set.comparator());
+    }
+
+    @Override
+    public SortedSet<T> subSet(T fromElement, T toElement) {
+        return subSet(fromElement, true, toElement, false);
+    }
+
+    @Override
+    public SortedSet<T> headSet(T toElement) {
+        return headSet(toElement, false);
+    }
+
+    @Override
+    public SortedSet<T> tailSet(T fromElement) {
+        return tailSet(fromElement, true);
+    }
+
+    @Override
+    public T first() {
+        return set.last();
+    }
+
+    @Override
+    public T last() {
+        return set.first();
+    }
+}
@@ -0,0 +1,352 @@
+package ru.ifmo.ctddev.koroleva.arrayset;
+
+import java.util.*;
+
+/**
+ * Immutable sorted set of non-negative <tt>long</tt> keys in Elias-Fano encoding.
+ *
+ * Every key is split into <tt>lowBits = floor(log2(max / n))</tt> low bits, which are packed into a bit array,
+ * and high bits, which are stored as a unary-coded bit vector: key number <tt>i</tt> sets bit <tt>high + i</tt>.
+ * This takes about <tt>2 + lowBits</tt> bits per key. Positions of every {@link #SAMPLE}-th one and zero
+ * of the high bit vector are sampled, so navigation jumps to the right bucket of keys in O(1)
+ * and finishes with a binary search on the low bits of that bucket. Views share the encoded keys.
+ */
+public class EliasFanoLongSet extends AbstractSet<Long> implements NavigableSet<Long> {
+    private static final int SAMPLE = 256;
+
+    private final Encoding encoding;
+    private final int left;
+    private final int right;
+
+    private static class Encoding {
+        final int size;
+        final int lowBits;
+        final long lowMask;
+        final long max;
+        final long[] lows;
+        final long[] highs;
+        final int[] oneSamples;
+        final int[] zeroSamples;
+
+        Encoding(long[] keys) {
+            size = keys.length;
+            max = (size == 0) ? -1 : keys[size - 1];
+            lowBits = (size == 0) ? 0 : Math.max(0, 63 - Long.numberOfLeadingZeros(max / size));
+            lowMask = (1L << lowBits) - 1;
+
+            long maxHigh = (size == 0) ? 0 : max >>> lowBits;
+            long highLength = size + maxHigh + 1;
+            if (highLength > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Too many keys: " + size);
+            }
+            lows = new long[(int) (((long) size * lowBits + 63) / 64)];
+            highs = new long[(int) ((highLength + 63) / 64)];
+            oneSamples = new int[(size + SAMPLE - 1) / SAMPLE];
+            zeroSamples = new int[(int) ((maxHigh + 1 + SAMPLE - 1) / SAMPLE)];
+
+            for (int i = 0; i < size; i++) {
+                if (keys[i] < 0 || (i > 0 && keys[i] <= keys[i - 1])) {
+                    throw new IllegalArgumentException("Keys should be non-negative, distinct and sorted");
+                }
+                setLow(i, keys[i] & lowMask);
+                int position = (int) ((keys[i] >>> lowBits) + i);
+                highs[position >>> 6] |= 1L << position;
+                if (i % SAMPLE == 0) {
+                    oneSamples[i / SAMPLE] = position;
+                }
+            }
+
+            int zeros = 0;
+            for (int position = 0; position < highLength; position++) {
+                if ((highs[position >>> 6] & (1L << position)) == 0) {
+                    if (zeros % SAMPLE == 0) {
+                        zeroSamples[zeros / SAMPLE] = position;
+                    }
+                    zeros++;
+                }
+            }
+        }
+
+        private void setLow(int index, long value) {
+            if (lowBits == 0) {
+                return;
+            }
+            long offset = (long) index * lowBits;
+            int word = (int) (offset >>> 6);
+            int shift = (int) (offset & 63);
+            lows[word] |= value << shift;
+            if (shift + lowBits > 64) {
+                lows[word + 1] |= value >>> (64 - shift);
+            }
+        }
+
+        long low(int index) {
+            if (lowBits == 0) {
+                return 0;
+            }
+            long offset = (long) index * lowBits;
+            int word = (int) (offset >>> 6);
+            int shift = (int) (offset & 63);
+            long value = lows[word] >>> shift;
+            if (shift + lowBits > 64) {
+                value |= lows[word + 1] << (64 - shift);
+            }
+            return value & lowMask;
+        }
+
+        /**
+         * Position of the <tt>rank</tt>-th one (or zero) in high bit vector.
+         */
+        int select(int rank, boolean one) {
+            int position = (one ? oneSamples : zeroSamples)[rank / SAMPLE];
+            int remaining = rank % SAMPLE;
+            int word = position >>> 6;
+            long bits = (one ? highs[word] : ~highs[word]) & (-1L << position);
+            while (true) {
+                int count = Long.bitCount(bits);
+                if (remaining < count) {
+                    for (int i = 0; i < remaining; i++) {
+                        bits &= bits - 1;
+                    }
+                    return (word << 6) + Long.numberOfTrailingZeros(bits);
+                }
+                remaining -= count;
+                word++;
+                bits = one ? highs[word] : ~highs[word];
+            }
+        }
+
+        int nextOne(int from) {
+            int word = from >>> 6;
+            long bits = highs[word] & (-1L << from);
+            while (bits == 0) {
+                bits = highs[++word];
+            }
+            return (word << 6) + Long.numberOfTrailingZeros(bits);
+        }
+
+        long get(int index) {
+            return ((long) (select(index, true) - index) << lowBits) | low(index);
+        }
+
+        /**
+         * Index of the first key, which is not less than <tt>key</tt>.
+         */
+        int ceilingIndex(long key) {
+            if (key <= 0) {
+                return 0;
+            }
+            if (key > max) {
+                return size;
+            }
+            int high = (int) (key >>> lowBits);
+            int from = (high == 0) ? 0 : select(high - 1, false) - (high - 1);
+            int to = select(high, false) - high;
+            long low = key & lowMask;
+            while (from < to) {
+                int middle = (from + to) >>> 1;
+                if (low(middle) < low) {
+                    from = middle + 1;
+                } else {
+                    to = middle;
+                }
+            }
+            return from;
+        }
+    }
+
+    private EliasFanoLongSet(Encoding encoding, int left, int right) {
+        super();
+        right = right < left ? left : right;
+
+        this.encoding = encoding;
+        this.left = left;
+        this.right = right;
+    }
+
+    /**
+     * Encodes all keys of <tt>set</tt>.
+     *
+     * @param set set of non-negative keys in natural order, for example {@link ArraySet}.
+     * @throws IllegalArgumentException if set is not in natural order or has negative keys.
+     */
+    public EliasFanoLongSet(SortedSet<Long> set) {
+        this(encode(set));
+    }
+
+    /**
+     * Encodes <tt>keys</tt>.
+     *
+     * @param keys non-negative keys in ascending order without duplicates.
+     * @throws IllegalArgumentException if keys are not sorted or some of them are negative.
+     */
+    public EliasFanoLongSet(long[] keys) {
+        this(new Encoding(keys), 0, keys.length);
+    }
+
+    private static long[] encode(SortedSet<Long> set) {
+        if (set.comparator() != null) {
+            throw new IllegalArgumentException("Set should be in natural order");
+        }
+        long[] keys = new long[set.size()];
+        int i = 0;
+        for (long key : set) {
+            keys[i++] = key;
+        }
+        return keys;
+    }
+
+    private int ceilingIndex(long key) {
+        return Math.min(Math.max(encoding.ceilingIndex(key), left), right);
+    }
+
+    private int higherIndex(long key) {
+        return (key == Long.MAX_VALUE) ? right : ceilingIndex(key + 1);
+    }
+
+    private Long keyAt(int index) {
+        return (index < left || index >= right) ? null : encoding.get(index);
+    }
+
+    @Override
+    public Long lower(Long t) {
+        return keyAt(ceilingIndex(t) - 1);
+    }
+
+    @Override
+    public Long floor(Long t) {
+        return keyAt(higherIndex(t) - 1);
+    }
+
+    @Override
+    public Long ceiling(Long t) {
+        return keyAt(ceilingIndex(t));
+    }
+
+    @Override
+    public Long higher(Long t) {
+        return keyAt(higherIndex(t));
+    }
+
+    @Override
+    public Long pollFirst() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Long pollLast() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int size() {
+        return right - left;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        long key = (Long) o;
+        int index = ceilingIndex(key);
+        return index < right && encoding.get(index) == key;
+    }
+
+    @Override
+    public Iterator<Long> iterator() {
+        return new Iterator<Long>() {
+            int index = left;
+            int position = (left < right) ? encoding.select(left, true) : 0;
+            @Override
+            public boolean hasNext() {
+                return index < right;
+            }
+
+            @Override
+            public Long next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                long key = ((long) (position - index) << encoding.lowBits) | encoding.low(index);
+                index++;
+                if (index < right) {
+                    position = encoding.nextOne(position + 1);
+                }
+                return key;
+            }
+        };
+    }
+
+    @Override
+    public NavigableSet<Long> descendingSet() {
+        return new ArraySet<>(toArray(new Long[size()]), Collections.reverseOrder());
+    }
+
+    @Override
+    public Iterator<Long> descendingIterator() {
+        return new Iterator<Long>() {
+            int index = right - 1;
+            @Override
+            public boolean hasNext() {
+                return index >= left;
+            }
+
+            @Override
+            public Long next() {
+                if (hasNext())
+                    return encoding.get(index--);
+                throw new NoSuchElementException();
+            }
+        };
+    }
+
+    @Override
+    public NavigableSet<Long> subSet(Long fromElement, boolean fromInclusive, Long toElement, boolean toInclusive) {
+        int from = fromInclusive ? ceilingIndex(fromElement) : higherIndex(fromElement);
+        int to = toInclusive ? higherIndex(toElement) : ceilingIndex(toElement);
+        return new EliasFanoLongSet(encoding, from, to);
+    }
+
+    @Override
+    public NavigableSet<Long> headSet(Long toElement, boolean inclusive) {
+        int to = inclusive ? higherIndex(toElement) : ceilingIndex(toElement);
+        return new EliasFanoLongSet(encoding, left, to);
+    }
+
+    @Override
+    public NavigableSet<Long> tailSet(Long fromElement, boolean inclusive) {
+        int from = inclusive ? ceilingIndex(fromElement) : higherIndex(fromElement);
+        return new EliasFanoLongSet(encoding, from, right);
+    }
+
+    @Override
+    public Comparator<? super Long> comparator() {
+        return null;
+    }
+
+    @Override
+    public SortedSet<Long> subSet(Long fromElement, Long toElement) {
+        return subSet(fromElement, true, toElement, false);
+    }
+
+    @Override
+    public SortedSet<Long> headSet(Long toElement) {
+        return headSet(toElement, false);
+    }
+
+    @Override
+    public SortedSet<Long> tailSet(Long fromElement) {
+        return tailSet(fromElement, true);
+    }
+
+    @Override
+    public Long first() {
+        if (isEmpty())
+            throw new NoSuchElementException();
+        return encoding.get(left);
+    }
+
+    @Override
+    public Long last() {
+        if (isEmpty())
+            throw new NoSuchElementException();
+        return encoding.get(right - 1);
+    }
+}
@@ -0,0 +1,375 @@
+package ru.ifmo.ctddev.koroleva.arrayset;
+
+import java.io.ByteArrayOutputStream;
+import java.util.*;
+
+/**
+ * Immutable sorted set of strings in natural order, compressed with front coding.
+ *
+ * Strings are stored in blocks of {@link #BLOCK_SIZE}: the first string of a block is stored completely,
+ * every next one as the length of the prefix it shares with the previous string and the rest of its bytes.
+ * Lengths are variable-length integers. Offsets of blocks are the only index, so a lookup
+ * does a binary search over first strings of blocks and then decodes at most one block.
+ * Views, including {@link #prefixSet(String)}, share the encoded data.
+ *
+ * Every UTF-16 unit of a string is encoded separately in one to three bytes, as in modified UTF-8,
+ * so unpaired surrogates are kept and byte order of encoded strings is the order of {@link String#compareTo}.
+ */
+public class FrontCodedStringSet extends AbstractSet<String> implements NavigableSet<String> {
+    private static final int BLOCK_SIZE = 16;
+
+    private final byte[] data;
+    private final int[] blocks;
+    private final int count;
+    private final int left;
+    private final int right;
+
+    private FrontCodedStringSet(FrontCodedStringSet parent, int left, int right) {
+        super();
+        right = right < left ? left : right;
+
+        this.data = parent.data;
+        this.blocks = parent.blocks;
+        this.count = parent.count;
+        this.left = left;
+        this.right = right;
+    }
+
+    /**
+     * Compresses strings of <tt>collection</tt>.
+     *
+     * @param collection strings to store, duplicates are removed.
+     */
+    @SuppressWarnings("unchecked")
+    public FrontCodedStringSet(Collection<String> collection) {
+        super();
+        SortedSet<String> sorted = (collection instanceof SortedSet && ((SortedSet<String>) collection).comparator() == null)
+                ? (SortedSet<String>) collection
+                : new ArraySet<>(collection);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        this.blocks = new int[(sorted.size() + BLOCK_SIZE - 1) / BLOCK_SIZE];
+        byte[] previous = new byte[0];
+        int index = 0;
+        for (String s : sorted) {
+            byte[] bytes = toBytes(s);
+            int shared = 0;
+            if (index % BLOCK_SIZE == 0) {
+                blocks[index / BLOCK_SIZE] = out.size();
+            } else {
+                int limit = Math.min(previous.length, bytes.length);
+                while (shared < limit && previous[shared] == bytes[shared]) {
+                    shared++;
+                }
+                writeVarInt(out, shared);
+            }
+            writeVarInt(out, bytes.length - shared);
+            out.write(bytes, shared, bytes.length - shared);
+            previous = bytes;
+            index++;
+        }
+        this.data = out.toByteArray();
+        this.count = index;
+        this.left = 0;
+        this.right = index;
+    }
+
+    private static byte[] toBytes(String s) {
+        byte[] bytes = new byte[3 * s.length()];
+        int length = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                bytes[length++] = (byte) c;
+            } else if (c < 0x800) {
+                bytes[length++] = (byte) (0xC0 | c >> 6);
+                bytes[length++] = (byte) (0x80 | c & 0x3F);
+            } else {
+                bytes[length++] = (byte) (0xE0 | c >> 12);
+                bytes[length++] = (byte) (0x80 | c >> 6 & 0x3F);
+                bytes[length++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+        return Arrays.copyOf(bytes, length);
+    }
+
+    private static String fromBytes(byte[] bytes, int length) {
+        char[] chars = new char[length];
+        int count = 0;
+        for (int i = 0; i < length; count++) {
+            int b = bytes[i++] & 0xFF;
+            if (b < 0x80) {
+                chars[count] = (char) b;
+            } else if (b < 0xE0) {
+                chars[count] = (char) ((b & 0x1F) << 6 | bytes[i++] & 0x3F);
+            } else {
+                chars[count] = (char) ((b & 0x0F) << 12 | (bytes[i++] & 0x3F) << 6 | bytes[i++] & 0x3F);
+            }
+        }
+        return new String(chars, 0, count);
+    }
+
+    private static void writeVarInt(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    /**
+     * Sequential decoder of strings. Starts from the beginning of the block and skips strings before <tt>index</tt>.
+     */
+    private class Cursor {
+        private int index;
+        private int offset;
+        private byte[] bytes = new byte[64];
+
+        Cursor(int index) {
+            this.index = index - index % BLOCK_SIZE;
+            this.offset = (this.index < count) ? blocks[this.index / BLOCK_SIZE] : data.length;
+            while (this.index < index) {
+                decode();
+            }
+        }
+
+        private int readVarInt() {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[offset++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+
+        private int decode() {
+            int shared = (index % BLOCK_SIZE == 0) ? 0 : readVarInt();
+            int suffix = readVarInt();
+            if (bytes.length < shared + suffix) {
+                bytes = Arrays.copyOf(bytes, Math.max(shared + suffix, 2 * bytes.length));
+            }
+            System.arraycopy(data, offset, bytes, shared, suffix);
+            offset += suffix;
+            index++;
+            return shared + suffix;
+        }
+
+        /**
+         * Decodes string with current index and moves to the next one.
+         */
+        String next() {
+            int length = decode();
+            return fromBytes(bytes, length);
+        }
+    }
+
+    private String get(int index) {
+        return new Cursor(index).next();
+    }
+
+    /**
+     * Index of the first string, which is not less than <tt>s</tt>, in the whole data.
+     */
+    private int position(String s) {
+        int low = 0;
+        int high = blocks.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (get(middle * BLOCK_SIZE).compareTo(s) <= 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        if (low == 0) {
+            return 0;
+        }
+
+        int from = (low - 1) * BLOCK_SIZE;
+        int to = Math.min(low * BLOCK_SIZE, count);
+        Cursor cursor = new Cursor(from);
+        for (int index = from; index < to; index++) {
+            if (cursor.next().compareTo(s) >= 0) {
+                return index;
+            }
+        }
+        return to;
+    }
+
+    private int ceilingIndex(String s) {
+        return Math.min(Math.max(position(s), left), right);
+    }
+
+    private int higherIndex(String s) {
+        int index = ceilingIndex(s);
+        return (index < right && get(index).equals(s)) ? index + 1 : index;
+    }
+
+    private String stringAt(int index) {
+        return (index < left || index >= right) ? null : get(index);
+    }
+
+    /**
+     * Returns view of all strings, which start with <tt>prefix</tt>.
+     * Contains the same strings as <tt>subSet</tt> of {@link ArraySet} between <tt>prefix</tt>
+     * and the first string after it, which doesn't start with <tt>prefix</tt>.
+     *
+     * @param prefix prefix of strings.
+     * @return view of strings with given prefix.
+     */
+    public FrontCodedStringSet prefixSet(String prefix) {
+        int from = ceilingIndex(prefix);
+        int low = from;
+        int high = right;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (get(middle).startsWith(prefix)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return new FrontCodedStringSet(this, from, low);
+    }
+
+    @Override
+    public String lower(String s) {
+        return stringAt(ceilingIndex(s) - 1);
+    }
+
+    @Override
+    public String floor(String s) {
+        return stringAt(higherIndex(s) - 1);
+    }
+
+    @Override
+    public String ceiling(String s) {
+        return stringAt(ceilingIndex(s));
+    }
+
+    @Override
+    public String higher(String s) {
+        return stringAt(higherIndex(s));
+    }
+
+    @Override
+    public String pollFirst() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public String pollLast() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int size() {
+        return right - left;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        String s = (String) o;
+        int index = ceilingIndex(s);
+        return index < right && get(index).equals(s);
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+        return new Iterator<String>() {
+            final Cursor cursor = new Cursor(left);
+            int position = left;
+            @Override
+            public boolean hasNext() {
+                return position < right;
+            }
+
+            @Override
+            public String next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                position++;
+                return cursor.next();
+            }
+        };
+    }
+
+    @Override
+    public NavigableSet<String> descendingSet() {
+        return new ArraySet<>(toArray(new String[size()]), Collections.reverseOrder());
+    }
+
+    @Override
+    public Iterator<String> descendingIterator() {
+        return new Iterator<String>() {
+            int position = right - 1;
+            @Override
+            public boolean hasNext() {
+                return position >= left;
+            }
+
+            @Override
+            public String next() {
+                if (hasNext())
+                    return get(position--);
+                throw new NoSuchElementException();
+            }
+        };
+    }
+
+    @Override
+    public FrontCodedStringSet subSet(String fromElement, boolean fromInclusive, String toElement, boolean toInclusive) {
+        int from = fromInclusive ? ceilingIndex(fromElement) : higherIndex(fromElement);
+        int to = toInclusive ? higherIndex(toElement) : ceilingIndex(toElement);
+        return new FrontCodedStringSet(this, from, to);
+    }
+
+    @Override
+    public FrontCodedStringSet headSet(String toElement, boolean inclusive) {
+        int to = inclusive ? higherIndex(toElement) : ceilingIndex(toElement);
+        return new FrontCodedStringSet(this, left, to);
+    }
+
+    @Override
+    public FrontCodedStringSet tailSet(String fromElement, boolean inclusive) {
+        int from = inclusive ? ceilingIndex(fromElement) : higherIndex(fromElement);
+        return new FrontCodedStringSet(this, from, right);
+    }
+
+    @Override
+    public Comparator<? super String> comparator() {
+        return null;
+    }
+
+    @Override
+    public SortedSet<String> subSet(String fromElement, String toElement) {
+        return subSet(fromElement, true, toElement, false);
+    }
+
+    @Override
+    public SortedSet<String> headSet(String toElement) {
+        return headSet(toElement, false);
+    }
+
+    @Override
+    public SortedSet<String> tailSet(String fromElement) {
+        return tailSet(fromElement, true);
+    }
+
+    @Override
+    public String first() {
+        if (isEmpty())
+            throw new NoSuchElementException();
+        return get(left);
+    }
+
+    @Override
+    public String last() {
+        if (isEmpty())
+            throw new NoSuchElementException();
+        return get(right - 1);
+    }
+}
@@ -0,0 +1,65 @@
+package ru.ifmo.ctddev.koroleva.arrayset;
+
+import java.util.Comparator;
+
+/**
+ * Open-addressing hash table of positions of elements in a sorted array.
+ * Answers whether an element is present and where it is in O(1) expected time,
+ * while the array itself stays the only copy of elements.
+ *
+ * Table has at least twice as many slots as elements and uses linear probing.
+ * Slot holds <tt>position + 1</tt>, zero means empty slot.
+ */
+class HashIndex<T> {
+    private static final int MAX_SIZE = 1 << 29;
+
+    private final T[] data;
+    private final Comparator<? super T> comparator;
+    private final int[] table;
+    private final int mask;
+
+    private HashIndex(T[] data, int from, int to, Comparator<? super T> comparator) {
+        this.data = data;
+        this.comparator = comparator;
+        this.table = new int[Integer.highestOneBit(Math.max(1, 2 * (to - from) - 1)) << 1];
+        this.mask = table.length - 1;
+
+        for (int i = from; i < to; i++) {
+            int slot = hash(data[i]) & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = i + 1;
+        }
+    }
+
+    /**
+     * Builds index for sorted distinct <tt>data[from, to)</tt>.
+     *
+     * @return index or <tt>null</tt>, if there are too many elements for it.
+     */
+    static <T> HashIndex<T> build(T[] data, int from, int to, Comparator<? super T> comparator) {
+        return (to - from > MAX_SIZE) ? null : new HashIndex<>(data, from, to, comparator);
+    }
+
+    private static int hash(Object o) {
+        int h = o.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Returns position of element, which is equal to <tt>o</tt> according to comparator, or <tt>-1</tt>.
+     */
+    @SuppressWarnings("unchecked")
+    int find(Object o) {
+        int slot = hash(o) & mask;
+        while (table[slot] != 0) {
+            int position = table[slot] - 1;
+            if (comparator.compare(data[position], (T) o) == 0) {
+                return position;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+}
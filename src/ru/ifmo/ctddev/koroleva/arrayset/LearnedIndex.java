@@ -0,0 +1,136 @@
+package ru.ifmo.ctddev.koroleva.arrayset;
+
+/**
+ * Piecewise-linear model of positions of integral keys in a sorted array.
+ *
+ * Key range is cut into buckets of equal width, about {@link #BUCKET_SIZE} elements per bucket on average.
+ * Every bucket remembers where its elements start and a line from its first to its last key,
+ * which predicts the position of a key. The maximal error of the prediction is computed at construction,
+ * so a lookup only does a binary search in a window of <tt>2 * error + 2</tt> elements.
+ * Buckets where the line fits badly are searched completely.
+ */
+class LearnedIndex {
+    private static final int BUCKET_SIZE = 64;
+    private static final int MAX_ERROR = 16;
+    private static final int MIN_SIZE = 4 * BUCKET_SIZE;
+
+    private final Object[] data;
+    private final Class<?> keyClass;
+    private final double min;
+    private final double scale;
+    private final int[] starts;
+    private final double[] lowKeys;
+    private final double[] slopes;
+    private final int[] errors;
+
+    private LearnedIndex(Object[] data, int from, int to) {
+        this.data = data;
+        this.keyClass = data[from].getClass();
+
+        int buckets = (to - from) / BUCKET_SIZE;
+        this.min = key(data[from]);
+        this.scale = buckets / (key(data[to - 1]) - min);
+        this.starts = new int[buckets + 1];
+        this.lowKeys = new double[buckets];
+        this.slopes = new double[buckets];
+        this.errors = new int[buckets];
+
+        int current = 0;
+        starts[0] = from;
+        for (int i = from; i < to; i++) {
+            int bucket = bucket(key(data[i]));
+            while (current < bucket) {
+                starts[++current] = i;
+            }
+        }
+        while (current < buckets) {
+            starts[++current] = to;
+        }
+
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            int count = starts[bucket + 1] - starts[bucket];
+            if (count < 2) {
+                continue;
+            }
+            lowKeys[bucket] = key(data[starts[bucket]]);
+            double width = key(data[starts[bucket + 1] - 1]) - lowKeys[bucket];
+            slopes[bucket] = (width > 0) ? (count - 1) / width : 0;
+
+            int error = 0;
+            for (int i = starts[bucket]; i < starts[bucket + 1]; i++) {
+                error = Math.max(error, Math.abs(i - predict(bucket, key(data[i]))));
+            }
+            errors[bucket] = (error > MAX_ERROR) ? count : error;
+        }
+    }
+
+    /**
+     * Builds model for sorted distinct <tt>data[from, to)</tt> in natural order.
+     *
+     * @return model or <tt>null</tt>, if keys are not integral or are too skewed to be predicted well.
+     */
+    static LearnedIndex build(Object[] data, int from, int to) {
+        if (to - from < MIN_SIZE || !isIntegral(data[from].getClass()) || key(data[to - 1]) <= key(data[from])) {
+            return null;
+        }
+        LearnedIndex index = new LearnedIndex(data, from, to);
+
+        int predicted = 0;
+        for (int bucket = 0; bucket < index.errors.length; bucket++) {
+            if (index.errors[bucket] <= MAX_ERROR) {
+                predicted += index.starts[bucket + 1] - index.starts[bucket];
+            }
+        }
+        return (2 * predicted < to - from) ? null : index;
+    }
+
+    private static boolean isIntegral(Class<?> token) {
+        return token == Long.class || token == Integer.class || token == Short.class || token == Byte.class;
+    }
+
+    private static double key(Object o) {
+        return ((Number) o).longValue();
+    }
+
+    private int bucket(double key) {
+        double bucket = (key - min) * scale;
+        return (int) Math.max(0, Math.min(bucket, errors.length - 1));
+    }
+
+    private int predict(int bucket, double key) {
+        int count = starts[bucket + 1] - starts[bucket];
+        double offset = (key - lowKeys[bucket]) * slopes[bucket];
+        return starts[bucket] + (int) Math.max(0, Math.min(offset, count - 1));
+    }
+
+    /**
+     * Checks, whether <tt>o</tt> has the same type as keys of the model.
+     */
+    boolean accepts(Object o) {
+        return o != null && o.getClass() == keyClass;
+    }
+
+    /**
+     * Returns index of the first element, which is not less than <tt>o</tt>.
+     */
+    int position(Object o) {
+        long key = ((Number) o).longValue();
+        int bucket = bucket(key);
+        int low = starts[bucket];
+        int high = starts[bucket + 1];
+        if (low < high) {
+            int predicted = predict(bucket, key);
+            low = Math.max(low, predicted - errors[bucket]);
+            high = Math.min(high, predicted + errors[bucket] + 1);
+        }
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (((Number) data[middle]).longValue() < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,254 @@
+package ru.ifmo.ctddev.koroleva.arrayset;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Read-only sorted set of <tt>long</tt> keys, which lives in a memory-mapped file.
+ * Opening a file only maps it, so the set is ready in O(1) and its keys never occupy the heap.
+ * All navigation is done by binary search directly on the mapped buffer, views, including the descending set,
+ * share it.
+ *
+ * File format: {@link #MAGIC}, number of keys, keys in ascending order without duplicates.
+ * All values are 8-byte big-endian longs. Files are created by {@link #write(SortedSet, Path)}.
+ */
+public class LongArraySet extends AbstractSet<Long> implements NavigableSet<Long> {
+    private static final long MAGIC = 0x4C6F6E6741727253L;
+    private static final int HEADER_SIZE = 2 * Long.BYTES;
+    private static final int MAX_SIZE = (Integer.MAX_VALUE - HEADER_SIZE) / Long.BYTES;
+
+    private final LongBuffer keys;
+    private final int left;
+    private final int right;
+
+    private LongArraySet(LongBuffer keys, int left, int right) {
+        super();
+        right = right < left ? left : right;
+
+        this.keys = keys;
+        this.left = left;
+        this.right = right;
+    }
+
+    /**
+     * Maps file, created by {@link #write(SortedSet, Path)}, into memory.
+     *
+     * @param path file to open.
+     * @return set of keys from the file.
+     * @throws IOException if file can't be read or has wrong format.
+     */
+    public static LongArraySet open(Path path) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) {
+                throw new IOException("File is too short: " + path);
+            }
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("File is too large: " + path);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (buffer.getLong(0) != MAGIC) {
+            throw new IOException("Not a LongArraySet file: " + path);
+        }
+        long count = buffer.getLong(Long.BYTES);
+        if (count < 0 || count > MAX_SIZE || HEADER_SIZE + count * Long.BYTES != buffer.capacity()) {
+            throw new IOException("Wrong number of keys in " + path);
+        }
+
+        buffer.position(HEADER_SIZE);
+        return new LongArraySet(buffer.slice().asLongBuffer(), 0, (int) count);
+    }
+
+    /**
+     * Writes keys of <tt>set</tt> into file, which can be opened by {@link #open(Path)}.
+     *
+     * @param set set in natural order, for example {@link ArraySet}.
+     * @param path file to write.
+     * @throws IOException if file can't be written.
+     * @throws IllegalArgumentException if set is not in natural order or is too large.
+     */
+    public static void write(SortedSet<Long> set, Path path) throws IOException {
+        if (set.comparator() != null) {
+            throw new IllegalArgumentException("Set should be in natural order");
+        }
+        if (set.size() > MAX_SIZE) {
+            throw new IllegalArgumentException("Set is too large: " + set.size());
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.writeLong(MAGIC);
+            out.writeLong(set.size());
+            for (long key : set) {
+                out.writeLong(key);
+            }
+        }
+    }
+
+    private int truePosition(long key) {
+        int low = left;
+        int high = right;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keys.get(middle) < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private int higherPosition(long key) {
+        int position = truePosition(key);
+        return (position != right && keys.get(position) == key) ? position + 1 : position;
+    }
+
+    @Override
+    public Long lower(Long t) {
+        int position = truePosition(t);
+        return (position == left) ? null : keys.get(position - 1);
+    }
+
+    @Override
+    public Long floor(Long t) {
+        int position = higherPosition(t);
+        return (position == left) ? null : keys.get(position - 1);
+    }
+
+    @Override
+    public Long ceiling(Long t) {
+        int position = truePosition(t);
+        return (position == right) ? null : keys.get(position);
+    }
+
+    @Override
+    public Long higher(Long t) {
+        int position = higherPosition(t);
+        return (position == right) ? null : keys.get(position);
+    }
+
+    @Override
+    public Long pollFirst() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Long pollLast() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int size() {
+        return right - left;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        long key = (Long) o;
+        int position = truePosition(key);
+        return position != right && keys.get(position) == key;
+    }
+
+    @Override
+    public Iterator<Long> iterator() {
+        return new Iterator<Long>() {
+            int position = left;
+            @Override
+            public boolean hasNext() {
+                return position < right;
+            }
+
+            @Override
+            public Long next() {
+                if (hasNext())
+                    return keys.get(position++);
+                throw new NoSuchElementException();
+            }
+        };
+    }
+
+    @Override
+    public NavigableSet<Long> descendingSet() {
+        return new DescendingSet<>(this);
+    }
+
+    @Override
+    public Iterator<Long> descendingIterator() {
+        return new Iterator<Long>() {
+            int position = right - 1;
+            @Override
+            public boolean hasNext() {
+                return position >= left;
+            }
+
+            @Override
+            public Long next() {
+                if (hasNext())
+                    return keys.get(position--);
+                throw new NoSuchElementException();
+            }
+        };
+    }
+
+    @Override
+    public NavigableSet<Long> subSet(Long fromElement, boolean fromInclusive, Long toElement, boolean toInclusive) {
+        int from = fromInclusive ? truePosition(fromElement) : higherPosition(fromElement);
+        int to = toInclusive ? higherPosition(toElement) : truePosition(toElement);
+        return new LongArraySet(keys, from, to);
+    }
+
+    @Override
+    public NavigableSet<Long> headSet(Long toElement, boolean inclusive) {
+        int to = inclusive ? higherPosition(toElement) : truePosition(toElement);
+        return new LongArraySet(keys, left, to);
+    }
+
+    @Override
+    public NavigableSet<Long> tailSet(Long fromElement, boolean inclusive) {
+        int from = inclusive ? truePosition(fromElement) : higherPosition(fromElement);
+        return new LongArraySet(keys, from, right);
+    }
+
+    @Override
+    public Comparator<? super Long> comparator() {
+        return null;
+    }
+
+    @Override
+    public SortedSet<Long> subSet(Long fromElement, Long toElement) {
+        return subSet(fromElement, true, toElement, false);
+    }
+
+    @Override
+    public SortedSet<Long> headSet(Long toElement) {
+        return headSet(toElement, false);
+    }
+
+    @Override
+    public SortedSet<Long> tailSet(Long fromElement) {
+        return tailSet(fromElement, true);
+    }
+
+    @Override
+    public Long first() {
+        if (isEmpty())
+            throw new NoSuchElementException();
+        return keys.get(left);
+    }
+
+    @Override
+    public Long last() {
+        if (isEmpty())
+            throw new NoSuchElementException();
+        return keys.get(right - 1);
+    }
+}
@@ -0,0 +1,618 @@
+package ru.ifmo.ctddev.koroleva.arrayset;
+
+import java.util.*;
+
+/**
+ * Mutable sorted set, which keeps most of its elements in an immutable {@link ArraySet}
+ * and recent changes in two small sorted buffers: elements added to the set and elements removed from the array.
+ * Queries merge the array with the buffers. When the buffers grow larger than
+ * <tt>1 / {@link #BUFFER_RATIO}</tt> of the array, they are merged into a new array in linear time,
+ * so an update costs O(log n) amortized instead of a full rebuild.
+ *
+ * Descending sets and sub-sets are views, which reflect later changes of the set, and their iterators
+ * merge the array with the buffers lazily. Iterators are fail-fast: they throw
+ * {@link ConcurrentModificationException}, if the set is changed not through the iterator.
+ */
+public class MutableArraySet<T> extends AbstractSet<T> implements NavigableSet<T> {
+    private static final int MIN_BUFFER_SIZE = 64;
+    private static final int BUFFER_RATIO = 16;
+
+    private final Comparator<? super T> comparator;
+    private final Comparator<? super T> order;
+    private ArraySet<T> base;
+    private final NavigableSet<T> inserted;
+    private final NavigableSet<T> deleted;
+    private int modCount = 0;
+
+    public MutableArraySet() {
+        this(Collections.emptyList(), null);
+    }
+
+    public MutableArraySet(Comparator<? super T> comparator) {
+        this(Collections.emptyList(), comparator);
+    }
+
+    public MutableArraySet(Collection<T> collection) {
+        this(collection, null);
+    }
+
+    public MutableArraySet(Collection<T> collection, Comparator<? super T> comparator) {
+        super();
+        this.comparator = comparator;
+        this.order = (comparator == null) ? ArraySet.naturalOrder() : comparator;
+        this.base = new ArraySet<>(collection, comparator);
+        this.inserted = new TreeSet<>(comparator);
+        this.deleted = new TreeSet<>(comparator);
+    }
+
+    /**
+     * Merges buffers into the array. Called automatically, when buffers become too large.
+     */
+    @SuppressWarnings("unchecked")
+    public void compact() {
+        if (inserted.isEmpty() && deleted.isEmpty()) {
+            return;
+        }
+        T[] merged = (T[]) new Object[size()];
+        Iterator<T> fromBase = base.iterator();
+        Iterator<T> fromInserted = inserted.iterator();
+        Iterator<T> fromDeleted = deleted.iterator();
+        T nextBase = next(fromBase);
+        T nextInserted = next(fromInserted);
+        T nextDeleted = next(fromDeleted);
+
+        int position = 0;
+        while (nextBase != null || nextInserted != null) {
+            if (nextBase != null && nextDeleted != null && order.compare(nextBase, nextDeleted) == 0) {
+                nextBase = next(fromBase);
+                nextDeleted = next(fromDeleted);
+            } else if (nextInserted == null || (nextBase != null && order.compare(nextBase, nextInserted) < 0)) {
+                merged[position++] = nextBase;
+                nextBase = next(fromBase);
+            } else {
+                merged[position++] = nextInserted;
+                nextInserted = next(fromInserted);
+            }
+        }
+
+        base = new ArraySet<>(merged, 0, merged.length, order, comparator == null);
+        inserted.clear();
+        deleted.clear();
+        modCount++;
+    }
+
+    private static <T> T next(Iterator<T> iterator) {
+        return iterator.hasNext() ? iterator.next() : null;
+    }
+
+    private void compactIfNeeded() {
+        if (inserted.size() + deleted.size() > Math.max(MIN_BUFFER_SIZE, base.size() / BUFFER_RATIO)) {
+            compact();
+        }
+    }
+
+    @Override
+    public boolean add(T t) {
+        if (base.contains(t) && !deleted.contains(t)) {
+            return false;
+        }
+        // An element equal to a deleted one stays deleted in the array, the new one goes to the buffer.
+        if (inserted.add(t)) {
+            modCount++;
+            compactIfNeeded();
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (delete(o)) {
+            compactIfNeeded();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Removes element without compaction, so iterators over the current array stay valid.
+     */
+    private boolean delete(Object o) {
+        if (inserted.remove(o)) {
+            modCount++;
+            return true;
+        }
+        @SuppressWarnings("unchecked")
+        T t = (T) o;
+        if (base.contains(t) && deleted.add(t)) {
+            modCount++;
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void clear() {
+        base = new ArraySet<>(Collections.emptyList(), comparator);
+        inserted.clear();
+        deleted.clear();
+        modCount++;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return inserted.contains(o) || (base.contains(o) && !deleted.contains(o));
+    }
+
+    @Override
+    public int size() {
+        return base.size() - deleted.size() + inserted.size();
+    }
+
+    /**
+     * Skips elements of the array, which were deleted, moving up or down from <tt>t</tt>.
+     */
+    private T skipDeleted(T t, boolean up) {
+        while (t != null && deleted.contains(t)) {
+            t = up ? base.higher(t) : base.lower(t);
+        }
+        return t;
+    }
+
+    private T min(T a, T b) {
+        if (a == null || b == null) {
+            return (a == null) ? b : a;
+        }
+        return order.compare(a, b) <= 0 ? a : b;
+    }
+
+    private T max(T a, T b) {
+        if (a == null || b == null) {
+            return (a == null) ? b : a;
+        }
+        return order.compare(a, b) >= 0 ? a : b;
+    }
+
+    @Override
+    public T lower(T t) {
+        return max(skipDeleted(base.lower(t), false), inserted.lower(t));
+    }
+
+    @Override
+    public T floor(T t) {
+        return max(skipDeleted(base.floor(t), false), inserted.floor(t));
+    }
+
+    @Override
+    public T ceiling(T t) {
+        return min(skipDeleted(base.ceiling(t), true), inserted.ceiling(t));
+    }
+
+    @Override
+    public T higher(T t) {
+        return min(skipDeleted(base.higher(t), true), inserted.higher(t));
+    }
+
+    @Override
+    public T first() {
+        if (isEmpty())
+            throw new NoSuchElementException();
+        T fromBase = base.isEmpty() ? null : skipDeleted(base.first(), true);
+        return min(fromBase, inserted.isEmpty() ? null : inserted.first());
+    }
+
+    @Override
+    public T last() {
+        if (isEmpty())
+            throw new NoSuchElementException();
+        T fromBase = base.isEmpty() ? null : skipDeleted(base.last(), false);
+        return max(fromBase, inserted.isEmpty() ? null : inserted.last());
+    }
+
+    @Override
+    public T pollFirst() {
+        if (isEmpty())
+            return null;
+        T result = first();
+        remove(result);
+        return result;
+    }
+
+    @Override
+    public T pollLast() {
+        if (isEmpty())
+            return null;
+        T result = last();
+        remove(result);
+        return result;
+    }
+
+    private SubSet whole(boolean descending) {
+        return new SubSet(true, null, true, true, null, true, descending);
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return whole(false).iterator();
+    }
+
+    @Override
+    public Iterator<T> descendingIterator() {
+        return whole(false).descendingIterator();
+    }
+
+    @Override
+    public NavigableSet<T> descendingSet() {
+        return whole(true);
+    }
+
+    @Override
+    public NavigableSet<T> subSet(T fromElement, boolean fromInclusive, T toElement, boolean toInclusive) {
+        return new SubSet(false, fromElement, fromInclusive, false, toElement, toInclusive, false);
+    }
+
+    @Override
+    public NavigableSet<T> headSet(T toElement, boolean inclusive) {
+        return new SubSet(true, null, true, false, toElement, inclusive, false);
+    }
+
+    @Override
+    public NavigableSet<T> tailSet(T fromElement, boolean inclusive) {
+        return new SubSet(false, fromElement, inclusive, true, null, true, false);
+    }
+
+    @Override
+    public SortedSet<T> subSet(T fromElement, T toElement) {
+        return subSet(fromElement, true, toElement, false);
+    }
+
+    @Override
+    public SortedSet<T> headSet(T toElement) {
+        return headSet(toElement, false);
+    }
+
+    @Override
+    public SortedSet<T> tailSet(T fromElement) {
+        return tailSet(fromElement, true);
+    }
+
+    @Override
+    public Comparator<? super T> comparator() {
+        return comparator;
+    }
+
+    /**
+     * View of elements between <tt>low</tt> and <tt>high</tt> (in order of the set) in ascending or descending order.
+     * Queries go to the set and are checked against bounds, the same way as sub-maps of {@link TreeMap} do it.
+     */
+    private class SubSet extends AbstractSet<T> implements NavigableSet<T> {
+        private final boolean fromStart;
+        private final T low;
+        private final boolean lowInclusive;
+        private final boolean toEnd;
+        private final T high;
+        private final boolean highInclusive;
+        private final boolean descending;
+
+        SubSet(boolean fromStart, T low, boolean lowInclusive, boolean toEnd, T high, boolean highInclusive,
+               boolean descending) {
+            super();
+            if (!fromStart && !toEnd && order.compare(low, high) > 0) {
+                throw new IllegalArgumentException("fromKey > toKey");
+            }
+            this.fromStart = fromStart;
+            this.low = low;
+            this.lowInclusive = lowInclusive;
+            this.toEnd = toEnd;
+            this.high = high;
+            this.highInclusive = highInclusive;
+            this.descending = descending;
+        }
+
+        private boolean tooLow(T t) {
+            if (fromStart) {
+                return false;
+            }
+            int compare = order.compare(t, low);
+            return compare < 0 || (compare == 0 && !lowInclusive);
+        }
+
+        private boolean tooHigh(T t) {
+            if (toEnd) {
+                return false;
+            }
+            int compare = order.compare(t, high);
+            return compare > 0 || (compare == 0 && !highInclusive);
+        }
+
+        private boolean inRange(T t) {
+            return !tooLow(t) && !tooHigh(t);
+        }
+
+        private boolean inClosedRange(T t) {
+            return (fromStart || order.compare(t, low) >= 0) && (toEnd || order.compare(high, t) >= 0);
+        }
+
+        private boolean inRange(T t, boolean inclusive) {
+            return inclusive ? inRange(t) : inClosedRange(t);
+        }
+
+        /**
+         * Returns view of <tt>set</tt> with the same bounds.
+         */
+        private NavigableSet<T> range(NavigableSet<T> set) {
+            if (fromStart && toEnd) {
+                return set;
+            } else if (fromStart) {
+                return set.headSet(high, highInclusive);
+            } else if (toEnd) {
+                return set.tailSet(low, lowInclusive);
+            }
+            return set.subSet(low, lowInclusive, high, highInclusive);
+        }
+
+        private T checkHigh(T t) {
+            return (t == null || tooHigh(t)) ? null : t;
+        }
+
+        private T checkLow(T t) {
+            return (t == null || tooLow(t)) ? null : t;
+        }
+
+        private T lowest() {
+            T t = fromStart ? (MutableArraySet.this.isEmpty() ? null : MutableArraySet.this.first())
+                    : lowInclusive ? MutableArraySet.this.ceiling(low) : MutableArraySet.this.higher(low);
+            return checkHigh(t);
+        }
+
+        private T highest() {
+            T t = toEnd ? (MutableArraySet.this.isEmpty() ? null : MutableArraySet.this.last())
+                    : highInclusive ? MutableArraySet.this.floor(high) : MutableArraySet.this.lower(high);
+            return checkLow(t);
+        }
+
+        private T absoluteCeiling(T t) {
+            return tooLow(t) ? lowest() : checkHigh(MutableArraySet.this.ceiling(t));
+        }
+
+        private T absoluteHigher(T t) {
+            return tooLow(t) ? lowest() : checkHigh(MutableArraySet.this.higher(t));
+        }
+
+        private T absoluteFloor(T t) {
+            return tooHigh(t) ? highest() : checkLow(MutableArraySet.this.floor(t));
+        }
+
+        private T absoluteLower(T t) {
+            return tooHigh(t) ? highest() : checkLow(MutableArraySet.this.lower(t));
+        }
+
+        @Override
+        public T lower(T t) {
+            return descending ? absoluteHigher(t) : absoluteLower(t);
+        }
+
+        @Override
+        public T floor(T t) {
+            return descending ? absoluteCeiling(t) : absoluteFloor(t);
+        }
+
+        @Override
+        public T ceiling(T t) {
+            return descending ? absoluteFloor(t) : absoluteCeiling(t);
+        }
+
+        @Override
+        public T higher(T t) {
+            return descending ? absoluteLower(t) : absoluteHigher(t);
+        }
+
+        @Override
+        public T first() {
+            T t = descending ? highest() : lowest();
+            if (t == null)
+                throw new NoSuchElementException();
+            return t;
+        }
+
+        @Override
+        public T last() {
+            T t = descending ? lowest() : highest();
+            if (t == null)
+                throw new NoSuchElementException();
+            return t;
+        }
+
+        @Override
+        public T pollFirst() {
+            T t = descending ? highest() : lowest();
+            if (t != null) {
+                MutableArraySet.this.remove(t);
+            }
+            return t;
+        }
+
+        @Override
+        public T pollLast() {
+            T t = descending ? lowest() : highest();
+            if (t != null) {
+                MutableArraySet.this.remove(t);
+            }
+            return t;
+        }
+
+        @Override
+        public int size() {
+            if (fromStart && toEnd) {
+                return MutableArraySet.this.size();
+            }
+            return range(base).size() - range(deleted).size() + range(inserted).size();
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public boolean contains(Object o) {
+            return inRange((T) o) && MutableArraySet.this.contains(o);
+        }
+
+        @Override
+        public boolean add(T t) {
+            if (!inRange(t)) {
+                throw new IllegalArgumentException("Element out of range");
+            }
+            return MutableArraySet.this.add(t);
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public boolean remove(Object o) {
+            return inRange((T) o) && MutableArraySet.this.remove(o);
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return new MergingIterator(descending);
+        }
+
+        @Override
+        public Iterator<T> descendingIterator() {
+            return new MergingIterator(!descending);
+        }
+
+        @Override
+        public NavigableSet<T> descendingSet() {
+            return new SubSet(fromStart, low, lowInclusive, toEnd, high, highInclusive, !descending);
+        }
+
+        /**
+         * Makes view with absolute bounds, which must be inside bounds of this view.
+         */
+        private SubSet absoluteSubSet(boolean fromStart, T low, boolean lowInclusive,
+                                      boolean toEnd, T high, boolean highInclusive) {
+            if (!fromStart && !inRange(low, lowInclusive)) {
+                throw new IllegalArgumentException("fromKey out of range");
+            }
+            if (!toEnd && !inRange(high, highInclusive)) {
+                throw new IllegalArgumentException("toKey out of range");
+            }
+            return new SubSet(fromStart && this.fromStart, fromStart ? this.low : low,
+                    fromStart ? this.lowInclusive : lowInclusive,
+                    toEnd && this.toEnd, toEnd ? this.high : high,
+                    toEnd ? this.highInclusive : highInclusive, descending);
+        }
+
+        @Override
+        public NavigableSet<T> subSet(T fromElement, boolean fromInclusive, T toElement, boolean toInclusive) {
+            return descending
+                    ? absoluteSubSet(false, toElement, toInclusive, false, fromElement, fromInclusive)
+                    : absoluteSubSet(false, fromElement, fromInclusive, false, toElement, toInclusive);
+        }
+
+        @Override
+        public NavigableSet<T> headSet(T toElement, boolean inclusive) {
+            return descending
+                    ? absoluteSubSet(false, toElement, inclusive, true, null, true)
+                    : absoluteSubSet(true, null, true, false, toElement, inclusive);
+        }
+
+        @Override
+        public NavigableSet<T> tailSet(T fromElement, boolean inclusive) {
+            return descending
+                    ? absoluteSubSet(true, null, true, false, fromElement, inclusive)
+                    : absoluteSubSet(false, fromElement, inclusive, true, null, true);
+        }
+
+        @Override
+        public SortedSet<T> subSet(T fromElement, T toElement) {
+            return subSet(fromElement, true, toElement, false);
+        }
+
+        @Override
+        public SortedSet<T> headSet(T toElement) {
+            return headSet(toElement, false);
+        }
+
+        @Override
+        public SortedSet<T> tailSet(T fromElement) {
+            return tailSet(fromElement, true);
+        }
+
+        @Override
+        public Comparator<? super T> comparator() {
+            return descending ? Collections.reverseOrder(comparator) : comparator;
+        }
+
+        /**
+         * Merges elements of the array, which are not deleted, with inserted elements inside bounds of the view.
+         * The array is immutable, so it is walked with its iterator, and inserted elements are
+         * found one by one with navigation methods, so the buffer may be changed through {@link #remove()}.
+         */
+        private class MergingIterator implements Iterator<T> {
+            private final boolean down;
+            private final Iterator<T> fromBase;
+            private final NavigableSet<T> insertedRange;
+            private T nextBase;
+            private T nextInserted;
+            private T current = null;
+            private boolean currentInserted;
+            private int expectedModCount = modCount;
+
+            MergingIterator(boolean down) {
+                this.down = down;
+                NavigableSet<T> baseRange = range(base);
+                this.fromBase = down ? baseRange.descendingIterator() : baseRange.iterator();
+                this.insertedRange = range(inserted);
+                this.nextBase = advanceBase();
+                this.nextInserted = insertedRange.isEmpty() ? null : (down ? insertedRange.last() : insertedRange.first());
+            }
+
+            private T advanceBase() {
+                while (fromBase.hasNext()) {
+                    T t = fromBase.next();
+                    if (!deleted.contains(t)) {
+                        return t;
+                    }
+                }
+                return null;
+            }
+
+            private void checkModification() {
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                checkModification();
+                return nextBase != null || nextInserted != null;
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                currentInserted = nextBase == null || (nextInserted != null
+                        && (down ? order.compare(nextInserted, nextBase) > 0 : order.compare(nextInserted, nextBase) < 0));
+                if (currentInserted) {
+                    current = nextInserted;
+                    nextInserted = down ? insertedRange.lower(current) : insertedRange.higher(current);
+                } else {
+                    current = nextBase;
+                    nextBase = advanceBase();
+                }
+                return current;
+            }
+
+            @Override
+            public void remove() {
+                if (current == null)
+                    throw new IllegalStateException();
+                checkModification();
+                delete(current);
+                expectedModCount = modCount;
+                current = null;
+            }
+        }
+    }
+}
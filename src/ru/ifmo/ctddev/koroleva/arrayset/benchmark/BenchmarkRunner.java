@@ -0,0 +1,35 @@
+package ru.ifmo.ctddev.koroleva.arrayset.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs {@link NavigableSetBenchmark}, {@link SortedLongArrayBenchmark} and {@link LearnedIndexBenchmark}
+ * and writes results as JSON, so they can be compared between runs.
+ *
+ * Usage: <tt>BenchmarkRunner [result.json] [size,size,...] [heap]</tt>, for example
+ * <tt>BenchmarkRunner result.json 1000,100000,10000000 4g</tt> on a machine with less than 16 GB of memory.
+ * Heap replaces the default maximum heap size of forks.
+ */
+public class BenchmarkRunner {
+    public static void main(String[] args) throws RunnerException {
+        String result = args.length > 0 ? args[0] : "arrayset-benchmark.json";
+        OptionsBuilder builder = new OptionsBuilder();
+        builder.include(NavigableSetBenchmark.class.getSimpleName())
+                .include(SortedLongArrayBenchmark.class.getSimpleName())
+                .include(LearnedIndexBenchmark.class.getSimpleName())
+                .resultFormat(ResultFormatType.JSON)
+                .result(result);
+        if (args.length > 1) {
+            builder.param("size", args[1].split(","));
+        }
+        if (args.length > 2) {
+            builder.jvmArgsAppend("-Xmx" + args[2]);
+        }
+        Options options = builder.build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,67 @@
+package ru.ifmo.ctddev.koroleva.arrayset.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.ifmo.ctddev.koroleva.arrayset.ArraySet;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares lookups in {@link ArraySet} with plain binary search and with {@link ArraySet#withLearnedIndex()}
+ * on uniform and skewed <tt>Long</tt> keys. Skewed keys are rejected by the model,
+ * so for them both indices measure the plain binary search.
+ *
+ * @see BenchmarkRunner
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class LearnedIndexBenchmark {
+    @Param({"1000", "100000", "10000000"})
+    public int size;
+
+    @Param({"uniform", "skewed"})
+    public String distribution;
+
+    @Param({"binary", "learned"})
+    public String index;
+
+    private ArraySet<Long> set;
+    private Long[] probes;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(2015);
+        Long[] elements = new Long[size];
+        for (int i = 0; i < size; i++) {
+            elements[i] = "uniform".equals(distribution)
+                    ? random.nextLong() >>> 1
+                    : (long) Math.exp(random.nextDouble() * 40);
+        }
+        ArraySet<Long> plain = new ArraySet<>(elements);
+        set = "learned".equals(index) ? plain.withLearnedIndex() : plain;
+
+        probes = new Long[NavigableSetBenchmark.PROBES];
+        for (int i = 0; i < probes.length; i++) {
+            probes[i] = random.nextBoolean() ? plain.get(random.nextInt(plain.size())) : random.nextLong() >>> 1;
+        }
+    }
+
+    private Long probe() {
+        return probes[next++ & (NavigableSetBenchmark.PROBES - 1)];
+    }
+
+    @Benchmark
+    public boolean contains() {
+        return set.contains(probe());
+    }
+
+    @Benchmark
+    public Long ceiling() {
+        return set.ceiling(probe());
+    }
+}
@@ -0,0 +1,138 @@
+package ru.ifmo.ctddev.koroleva.arrayset.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.ifmo.ctddev.koroleva.arrayset.ArraySet;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link ArraySet} with {@link TreeSet} and {@link ConcurrentSkipListSet} on random <tt>Long</tt> keys
+ * in natural order and with a custom comparator. Order <tt>naturalOrder</tt> passes
+ * {@link Comparator#naturalOrder()} explicitly, so for <tt>ArraySet</tt> it differs from <tt>natural</tt>
+ * only in the search: natural-order sets use a search specialized for <tt>Long</tt>, others call the comparator.
+ * Implementation <tt>ArraySetHashIndex</tt> is {@link ArraySet#withHashIndex()}, which has the index
+ * only in natural order and is the plain <tt>ArraySet</tt> otherwise.
+ * Keys are taken from <tt>[0, 2^62)</tt>, so sub-sets from a probe to <tt>probe + SPAN * (2^63 / size)</tt>
+ * contain about <tt>2 * SPAN</tt> keys and never overflow.
+ * Construction is measured as single shots, since building the largest sets takes seconds.
+ *
+ * Forks get a 16 GB heap for 100 million keys: they take about 2.8 GB boxed,
+ * <tt>TreeSet</tt> or <tt>ConcurrentSkipListSet</tt> take 4 GB more, and construction keeps two of them alive.
+ * Sizes up to 10 million fit in 4 GB, so on smaller machines pass sizes and heap to {@link BenchmarkRunner}.
+ * A single construction of <tt>TreeSet</tt> or <tt>ConcurrentSkipListSet</tt> of 10 million keys takes
+ * 30 to 60 seconds on one core, so 100 million keys take several minutes per shot.
+ * Construction iterations time out after 30 minutes instead of 10.
+ *
+ * @see SortedLongArrayBenchmark
+ * @see BenchmarkRunner
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx16g")
+@State(Scope.Benchmark)
+public class NavigableSetBenchmark {
+    static final int PROBES = 1 << 16;
+    static final int SPAN = 100;
+
+    @Param({"1000", "100000", "10000000", "100000000"})
+    public int size;
+
+    @Param({"ArraySet", "ArraySetHashIndex", "TreeSet", "ConcurrentSkipListSet"})
+    public String implementation;
+
+    @Param({"natural", "naturalOrder", "comparator"})
+    public String order;
+
+    private Long[] elements;
+    private Long[] probes;
+    private Comparator<Long> comparator;
+    private NavigableSet<Long> set;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(2015);
+        elements = new Long[size];
+        for (int i = 0; i < size; i++) {
+            elements[i] = random.nextLong() >>> 2;
+        }
+        probes = new Long[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            probes[i] = random.nextBoolean() ? elements[random.nextInt(size)] : random.nextLong() >>> 2;
+        }
+        comparator = "natural".equals(order) ? null
+                : "naturalOrder".equals(order) ? Comparator.naturalOrder()
+                : Comparator.comparingLong(Long::longValue);
+        set = create();
+    }
+
+    private NavigableSet<Long> create() {
+        switch (implementation) {
+            case "ArraySet":
+                return new ArraySet<>(elements.clone(), comparator);
+            case "ArraySetHashIndex":
+                return new ArraySet<>(elements.clone(), comparator).withHashIndex();
+            case "TreeSet":
+                NavigableSet<Long> tree = new TreeSet<>(comparator);
+                tree.addAll(Arrays.asList(elements));
+                return tree;
+            case "ConcurrentSkipListSet":
+                NavigableSet<Long> skipList = new ConcurrentSkipListSet<>(comparator);
+                skipList.addAll(Arrays.asList(elements));
+                return skipList;
+            default:
+                throw new IllegalArgumentException("Unknown implementation: " + implementation);
+        }
+    }
+
+    private Long probe() {
+        return probes[next++ & (PROBES - 1)];
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    @Timeout(time = 30, timeUnit = TimeUnit.MINUTES)
+    public NavigableSet<Long> construction() {
+        return create();
+    }
+
+    @Benchmark
+    public boolean contains() {
+        return set.contains(probe());
+    }
+
+    @Benchmark
+    public Long floor() {
+        return set.floor(probe());
+    }
+
+    @Benchmark
+    public Long ceiling() {
+        return set.ceiling(probe());
+    }
+
+    @Benchmark
+    public NavigableSet<Long> subSet() {
+        Long from = probe();
+        return set.subSet(from, true, from + SPAN * (Long.MAX_VALUE / size), false);
+    }
+
+    @Benchmark
+    public void iteration(Blackhole blackhole) {
+        for (Long element : set) {
+            blackhole.consume(element);
+        }
+    }
+
+    @Benchmark
+    public NavigableSet<Long> descendingSet() {
+        return set.descendingSet();
+    }
+}
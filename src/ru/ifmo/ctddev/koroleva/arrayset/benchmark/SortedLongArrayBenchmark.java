@@ -0,0 +1,114 @@
+package ru.ifmo.ctddev.koroleva.arrayset.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Baseline for {@link NavigableSetBenchmark}: the same operations on a sorted <tt>long[]</tt>
+ * with {@link Arrays#binarySearch(long[], long)}. Sub-sets are pairs of indices and
+ * descending sets are reversed copies.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx16g")
+@State(Scope.Benchmark)
+public class SortedLongArrayBenchmark {
+    @Param({"1000", "100000", "10000000", "100000000"})
+    public int size;
+
+    private long[] elements;
+    private long[] keys;
+    private long[] probes;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(2015);
+        elements = new long[size];
+        for (int i = 0; i < size; i++) {
+            elements[i] = random.nextLong() >>> 2;
+        }
+        probes = new long[NavigableSetBenchmark.PROBES];
+        for (int i = 0; i < probes.length; i++) {
+            probes[i] = random.nextBoolean() ? elements[random.nextInt(size)] : random.nextLong() >>> 2;
+        }
+        keys = construction();
+    }
+
+    private long probe() {
+        return probes[next++ & (NavigableSetBenchmark.PROBES - 1)];
+    }
+
+    private int position(long key) {
+        int position = Arrays.binarySearch(keys, key);
+        return (position < 0) ? -position - 1 : position;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public long[] construction() {
+        long[] array = elements.clone();
+        Arrays.sort(array);
+        int current = 0;
+        for (int i = 1; i < array.length; i++) {
+            if (array[i] != array[current]) {
+                array[++current] = array[i];
+            }
+        }
+        return Arrays.copyOf(array, array.length == 0 ? 0 : current + 1);
+    }
+
+    @Benchmark
+    public boolean contains() {
+        return Arrays.binarySearch(keys, probe()) >= 0;
+    }
+
+    @Benchmark
+    public long floor() {
+        long key = probe();
+        int position = Arrays.binarySearch(keys, key);
+        if (position >= 0) {
+            return keys[position];
+        }
+        position = -position - 1;
+        return (position == 0) ? -1 : keys[position - 1];
+    }
+
+    @Benchmark
+    public long ceiling() {
+        int position = position(probe());
+        return (position == keys.length) ? -1 : keys[position];
+    }
+
+    @Benchmark
+    public long subSet() {
+        long from = probe();
+        long to = from + NavigableSetBenchmark.SPAN * (Long.MAX_VALUE / size);
+        return ((long) position(from) << 32) | position(to);
+    }
+
+    @Benchmark
+    public long iteration() {
+        long sum = 0;
+        for (long key : keys) {
+            sum += key;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long[] descendingSet() {
+        long[] reversed = new long[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            reversed[i] = keys[keys.length - 1 - i];
+        }
+        return reversed;
+    }
+}
@@ -0,0 +1,44 @@
+package ru.ifmo.ctddev.koroleva.arrayset.test;
+
+import ru.ifmo.ctddev.koroleva.arrayset.ArrayMap;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.function.Function;
+
+/**
+ * {@link ArrayMap#navigableKeySet()} of a map from elements to themselves, which can be checked
+ * by {@link info.kgeorgiy.java.advanced.arrayset.NavigableSetTest}.
+ */
+public class ArrayMapKeySet extends IntegerKeySet<Integer> {
+    public ArrayMapKeySet() {
+        this(Collections.<Integer>emptyList());
+    }
+
+    public ArrayMapKeySet(Collection<Integer> elements) {
+        this(elements, null);
+    }
+
+    public ArrayMapKeySet(Collection<Integer> elements, Comparator<Integer> comparator) {
+        this(new ArrayMap<>(toMap(elements), comparator).navigableKeySet());
+    }
+
+    private ArrayMapKeySet(NavigableSet<Integer> keys) {
+        super(keys, Function.identity(), Function.identity(), keys.comparator());
+    }
+
+    /**
+     * Map keeps order of elements, so the first of equal elements is kept, as in <tt>TreeSet</tt>.
+     */
+    private static Map<Integer, Integer> toMap(Collection<Integer> elements) {
+        Map<Integer, Integer> map = new LinkedHashMap<>();
+        for (Integer element : elements) {
+            map.put(element, element);
+        }
+        return map;
+    }
+}
@@ -0,0 +1,115 @@
+package ru.ifmo.ctddev.koroleva.arrayset.test;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.junit.runners.MethodSorters;
+import ru.ifmo.ctddev.koroleva.arrayset.ArrayMap;
+
+import java.util.*;
+
+/**
+ * Compares {@link ArrayMap}, its descending map and its sub-maps with {@link TreeMap}.
+ * Key set of the map is checked by {@link info.kgeorgiy.java.advanced.arrayset.NavigableSetTest}
+ * through {@link ArrayMapKeySet}.
+ *
+ * Usage: <tt>java org.junit.runner.JUnitCore ru.ifmo.ctddev.koroleva.arrayset.test.ArrayMapTest</tt>.
+ */
+@RunWith(JUnit4.class)
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class ArrayMapTest {
+    private static final List<Comparator<Integer>> COMPARATORS = Arrays.asList(
+            null,
+            Comparator.reverseOrder(),
+            Comparator.comparing(i -> i / 100)
+    );
+
+    private static Map<Integer, String> randomMap(Random random, int size) {
+        Map<Integer, String> map = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            map.put(random.nextInt(4 * size + 1) - 2 * size, "v" + i);
+        }
+        return map;
+    }
+
+    private static void assertMap(String context, NavigableMap<Integer, String> expected,
+                                  NavigableMap<Integer, String> map, Random random) {
+        Assert.assertEquals("entries " + context, new ArrayList<>(expected.entrySet()), new ArrayList<>(map.entrySet()));
+        Assert.assertEquals("keys " + context, new ArrayList<>(expected.navigableKeySet()),
+                new ArrayList<>(map.navigableKeySet()));
+        Assert.assertEquals("descending keys " + context, new ArrayList<>(expected.descendingKeySet()),
+                new ArrayList<>(map.descendingKeySet()));
+        Assert.assertEquals("values " + context, new ArrayList<>(expected.values()), new ArrayList<>(map.values()));
+        Assert.assertEquals("size " + context, expected.size(), map.size());
+        Assert.assertEquals("firstEntry " + context, expected.firstEntry(), map.firstEntry());
+        Assert.assertEquals("lastEntry " + context, expected.lastEntry(), map.lastEntry());
+        for (int i = 0; i < 50; i++) {
+            Integer key = random.nextInt(401) - 200;
+            String query = context + ", key = " + key;
+            Assert.assertEquals("get " + query, expected.get(key), map.get(key));
+            Assert.assertEquals("containsKey " + query, expected.containsKey(key), map.containsKey(key));
+            Assert.assertEquals("lowerEntry " + query, expected.lowerEntry(key), map.lowerEntry(key));
+            Assert.assertEquals("floorEntry " + query, expected.floorEntry(key), map.floorEntry(key));
+            Assert.assertEquals("ceilingEntry " + query, expected.ceilingEntry(key), map.ceilingEntry(key));
+            Assert.assertEquals("higherEntry " + query, expected.higherEntry(key), map.higherEntry(key));
+            Assert.assertEquals("higherKey " + query, expected.higherKey(key), map.higherKey(key));
+        }
+    }
+
+    @Test
+    public void test01_navigation() {
+        Random random = new Random(2029);
+        for (Comparator<Integer> comparator : COMPARATORS) {
+            for (int size : new int[]{0, 1, 10, 100}) {
+                Map<Integer, String> source = randomMap(random, size);
+                NavigableMap<Integer, String> expected = new TreeMap<>(comparator);
+                for (Map.Entry<Integer, String> entry : source.entrySet()) {
+                    expected.putIfAbsent(entry.getKey(), entry.getValue());
+                }
+                ArrayMap<Integer, String> map = new ArrayMap<>(source, comparator);
+                String context = "(comparator = " + comparator + ", map = " + source + ")";
+
+                Assert.assertSame("comparator " + context, comparator, map.comparator());
+                assertMap(context, expected, map, random);
+                assertMap("descending " + context, expected.descendingMap(), map.descendingMap(), random);
+                for (int i = 0; i < 10; i++) {
+                    Integer from = random.nextInt(401) - 200;
+                    Integer to = random.nextInt(401) - 200;
+                    if ((comparator == null ? Integer.compare(from, to) : comparator.compare(from, to)) > 0) {
+                        Integer swap = from;
+                        from = to;
+                        to = swap;
+                    }
+                    boolean inclusive = random.nextBoolean();
+                    String range = context + ", from = " + from + ", to = " + to + ", inclusive = " + inclusive;
+                    assertMap("headMap " + range, expected.headMap(to, inclusive), map.headMap(to, inclusive), random);
+                    assertMap("tailMap " + range, expected.tailMap(from, inclusive), map.tailMap(from, inclusive), random);
+                    assertMap("subMap " + range, expected.subMap(from, inclusive, to, !inclusive),
+                            map.subMap(from, inclusive, to, !inclusive), random);
+                    assertMap("descending subMap " + range, expected.descendingMap().subMap(to, true, from, true),
+                            map.descendingMap().subMap(to, true, from, true), random);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void test02_immutable() {
+        ArrayMap<Integer, String> map = new ArrayMap<>(Collections.singletonMap(1, "one"));
+        try {
+            map.put(2, "two");
+            Assert.fail("put should throw UnsupportedOperationException");
+        } catch (UnsupportedOperationException e) {
+            // Expected
+        }
+        try {
+            map.pollFirstEntry();
+            Assert.fail("pollFirstEntry should throw UnsupportedOperationException");
+        } catch (UnsupportedOperationException e) {
+            // Expected
+        }
+        Assert.assertEquals(Collections.singletonMap(1, "one"), map);
+    }
+}
@@ -0,0 +1,320 @@
+package ru.ifmo.ctddev.koroleva.arrayset.test;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.junit.runners.MethodSorters;
+import ru.ifmo.ctddev.koroleva.arrayset.ArraySet;
+
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+/**
+ * Tests of {@link ArraySet} operations, which are not covered by
+ * {@link info.kgeorgiy.java.advanced.arrayset.NavigableSetTest}.
+ * Every result is compared with {@link TreeSet} or with the same query on a plain <tt>ArraySet</tt>.
+ *
+ * Usage: <tt>java org.junit.runner.JUnitCore ru.ifmo.ctddev.koroleva.arrayset.test.ArraySetTest</tt>.
+ */
+@RunWith(JUnit4.class)
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class ArraySetTest {
+    private static final int LARGE_SIZE = 1 << 17;
+
+    private static final List<Comparator<Integer>> COMPARATORS = Arrays.asList(
+            null,
+            Comparator.reverseOrder(),
+            Comparator.comparing(i -> i / 100),
+            (a, b) -> 0
+    );
+
+    static List<Integer> randomList(Random random, int size, int bound) {
+        List<Integer> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(random.nextInt(bound) - bound / 2);
+        }
+        return list;
+    }
+
+    static TreeSet<Integer> treeSet(List<Integer> elements, Comparator<Integer> comparator) {
+        TreeSet<Integer> set = new TreeSet<>(comparator);
+        set.addAll(elements);
+        return set;
+    }
+
+    @Test
+    public void test01_parallelConstruction() {
+        Random random = new Random(2015);
+        for (Comparator<Integer> comparator : COMPARATORS) {
+            for (int size : new int[]{(1 << 16) - 1, 1 << 16, LARGE_SIZE}) {
+                for (int bound : new int[]{size / 4, Integer.MAX_VALUE}) {
+                    List<Integer> elements = randomList(random, size, bound);
+                    Assert.assertEquals("size = " + size + ", comparator = " + comparator,
+                            new ArrayList<>(treeSet(elements, comparator)),
+                            new ArrayList<>(new ArraySet<>(elements, comparator)));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void test02_spliterator() {
+        Random random = new Random(2016);
+        for (Comparator<Integer> comparator : COMPARATORS) {
+            List<Integer> elements = randomList(random, 10_000, 20_000);
+            ArraySet<Integer> set = new ArraySet<>(elements, comparator);
+            List<Integer> expected = new ArrayList<>(treeSet(elements, comparator));
+
+            Spliterator<Integer> spliterator = set.spliterator();
+            Assert.assertTrue("spliterator should be sorted and sized", spliterator.hasCharacteristics(
+                    Spliterator.SORTED | Spliterator.DISTINCT | Spliterator.SIZED | Spliterator.SUBSIZED));
+            Assert.assertSame("spliterator should report comparator of set", comparator, spliterator.getComparator());
+            Assert.assertEquals(expected.size(), spliterator.getExactSizeIfKnown());
+
+            Assert.assertEquals("parallel stream, comparator = " + comparator,
+                    expected, StreamSupport.stream(set.spliterator(), true).collect(Collectors.toList()));
+
+            List<Integer> sequential = new ArrayList<>();
+            Spliterator<Integer> prefix = set.spliterator().trySplit();
+            Spliterator<Integer> rest = set.spliterator();
+            rest.trySplit();
+            if (prefix != null) {
+                prefix.forEachRemaining(sequential::add);
+            }
+            boolean advanced;
+            do {
+                advanced = rest.tryAdvance(sequential::add);
+            } while (advanced);
+            Assert.assertEquals("split halves, comparator = " + comparator, expected, sequential);
+
+            if (!expected.isEmpty()) {
+                Integer from = expected.get(expected.size() / 4);
+                Integer to = expected.get(expected.size() / 2);
+                Assert.assertEquals("subSet stream, comparator = " + comparator,
+                        new ArrayList<>(treeSet(elements, comparator).subSet(from, to)),
+                        set.subSet(from, to).stream().collect(Collectors.toList()));
+            }
+        }
+    }
+
+    @Test
+    public void test03_batchLookups() {
+        boolean[] empty = new boolean[2];
+        new ArraySet<Integer>().containsAll(new Integer[]{3, 1}, empty);
+        Assert.assertTrue("empty set contains nothing", Arrays.equals(new boolean[2], empty));
+
+        Random random = new Random(2017);
+        for (Comparator<Integer> comparator : COMPARATORS) {
+            for (int size : new int[]{0, 1, 100, 10_000}) {
+                List<Integer> elements = randomList(random, size, 2 * size + 2);
+                ArraySet<Integer> set = new ArraySet<>(elements, comparator);
+                for (boolean sorted : new boolean[]{false, true}) {
+                    List<Integer> probeList = randomList(random, 1_000, 2 * size + 10);
+                    if (sorted) {
+                        probeList.sort(comparator);
+                    }
+                    Integer[] probes = probeList.toArray(new Integer[0]);
+                    boolean[] contains = new boolean[probes.length];
+                    Integer[] ceilings = new Integer[probes.length];
+                    set.containsAll(probes, contains);
+                    set.ceilingAll(probes, ceilings);
+                    for (int i = 0; i < probes.length; i++) {
+                        String context = "probe = " + probes[i] + ", size = " + size + ", comparator = " + comparator;
+                        Assert.assertEquals(context, set.contains(probes[i]), contains[i]);
+                        Assert.assertEquals(context, set.ceiling(probes[i]), ceilings[i]);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void test04_orderStatistics() {
+        Random random = new Random(2018);
+        for (Comparator<Integer> comparator : COMPARATORS) {
+            List<Integer> elements = randomList(random, 1_000, 2_000);
+            ArraySet<Integer> whole = new ArraySet<>(elements, comparator);
+            List<ArraySet<Integer>> views = new ArrayList<>(Arrays.asList(whole, whole.descendingSet()));
+            if (!whole.isEmpty()) {
+                List<Integer> list = new ArrayList<>(whole);
+                views.add(whole.subSet(list.get(list.size() / 4), true, list.get(list.size() * 3 / 4), false));
+            }
+            for (ArraySet<Integer> set : views) {
+                List<Integer> list = new ArrayList<>(set);
+                Comparator<? super Integer> order = set.comparator() == null
+                        ? Comparator.naturalOrder() : set.comparator();
+                for (int i = 0; i < list.size(); i++) {
+                    Assert.assertEquals("get(" + i + "), comparator = " + comparator, list.get(i), set.get(i));
+                }
+                for (int probe = -1_100; probe <= 1_100; probe += 7) {
+                    String context = "probe = " + probe + ", comparator = " + comparator;
+                    int index = list.indexOf(set.floor(probe));
+                    Assert.assertEquals(context, set.contains(probe) ? index : -1, set.indexOf(probe));
+                    Assert.assertEquals(context, set.headSet(probe, false).size(), set.rank(probe));
+                    for (int to = probe; to <= probe + 300; to += 100) {
+                        for (boolean fromInclusive : new boolean[]{false, true}) {
+                            for (boolean toInclusive : new boolean[]{false, true}) {
+                                int expected = order.compare(probe, to) > 0 ? 0
+                                        : set.subSet(probe, fromInclusive, to, toInclusive).size();
+                                Assert.assertEquals(context + ", to = " + to, expected,
+                                        set.countInRange(probe, fromInclusive, to, toInclusive));
+                            }
+                        }
+                    }
+                }
+                for (int index : new int[]{-1, list.size()}) {
+                    try {
+                        set.get(index);
+                        Assert.fail("get(" + index + ") should throw IndexOutOfBoundsException");
+                    } catch (IndexOutOfBoundsException ignored) {
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void test05_learnedIndex() {
+        Random random = new Random(2019);
+        List<Integer> uniform = randomList(random, 100_000, Integer.MAX_VALUE);
+        ArraySet<Integer> plain = new ArraySet<>(uniform);
+        ArraySet<Integer> learned = plain.withLearnedIndex();
+        Assert.assertNotSame("uniform keys should get a learned index", plain, learned);
+        Assert.assertSame("learned index should not be built twice", learned, learned.withLearnedIndex());
+        Assert.assertEquals(new ArrayList<>(plain), new ArrayList<>(learned));
+
+        List<Integer> list = new ArrayList<>(plain);
+        Integer from = list.get(list.size() / 3);
+        Integer to = list.get(list.size() * 2 / 3);
+        List<ArraySet<Integer>> plainViews = Arrays.asList(plain, plain.subSet(from, to), plain.descendingSet());
+        List<ArraySet<Integer>> learnedViews = Arrays.asList(learned, learned.subSet(from, to), learned.descendingSet());
+        for (int v = 0; v < plainViews.size(); v++) {
+            ArraySet<Integer> expected = plainViews.get(v);
+            ArraySet<Integer> actual = learnedViews.get(v);
+            Assert.assertEquals(expected.size(), actual.size());
+            for (int i = 0; i < 10_000; i++) {
+                Integer probe = (i % 2 == 0) ? list.get(random.nextInt(list.size())) : random.nextInt();
+                String context = "view = " + v + ", probe = " + probe;
+                Assert.assertEquals(context, expected.contains(probe), actual.contains(probe));
+                Assert.assertEquals(context, expected.ceiling(probe), actual.ceiling(probe));
+                Assert.assertEquals(context, expected.floor(probe), actual.floor(probe));
+                Assert.assertEquals(context, expected.higher(probe), actual.higher(probe));
+                Assert.assertEquals(context, expected.lower(probe), actual.lower(probe));
+            }
+        }
+
+        List<Integer> skewed = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            skewed.add((int) (Math.pow(random.nextDouble(), 16) * Integer.MAX_VALUE));
+        }
+        ArraySet<Integer> skewedSet = new ArraySet<>(skewed);
+        Assert.assertSame("skewed keys should keep binary search", skewedSet, skewedSet.withLearnedIndex());
+        ArraySet<Integer> reversed = new ArraySet<>(uniform, Comparator.reverseOrder());
+        Assert.assertSame("learned index needs natural order", reversed, reversed.withLearnedIndex());
+        ArraySet<String> strings = new ArraySet<>(Arrays.asList("a", "b", "c"));
+        Assert.assertSame("learned index needs integral keys", strings, strings.withLearnedIndex());
+    }
+
+    @Test
+    public void test06_hashIndex() {
+        Random random = new Random(2020);
+        List<Integer> elements = randomList(random, 10_000, 40_000);
+        ArraySet<Integer> plain = new ArraySet<>(elements);
+        ArraySet<Integer> indexed = plain.withHashIndex();
+        Assert.assertNotSame("natural-order set should get a hash index", plain, indexed);
+        Assert.assertSame("hash index should not be built twice", indexed, indexed.withHashIndex());
+
+        List<Integer> list = new ArrayList<>(plain);
+        Integer from = list.get(list.size() / 3);
+        Integer to = list.get(list.size() * 2 / 3);
+        List<ArraySet<Integer>> plainViews = Arrays.asList(plain, plain.subSet(from, to), plain.descendingSet());
+        List<ArraySet<Integer>> indexedViews = Arrays.asList(indexed, indexed.subSet(from, to), indexed.descendingSet());
+        for (int v = 0; v < plainViews.size(); v++) {
+            ArraySet<Integer> expected = plainViews.get(v);
+            ArraySet<Integer> actual = indexedViews.get(v);
+            Assert.assertEquals(new ArrayList<>(expected), new ArrayList<>(actual));
+            for (int probe = -21_000; probe <= 21_000; probe += 3) {
+                String context = "view = " + v + ", probe = " + probe;
+                Assert.assertEquals(context, expected.contains(probe), actual.contains(probe));
+                Assert.assertEquals(context, expected.indexOf(probe), actual.indexOf(probe));
+                Assert.assertEquals(context, expected.ceiling(probe), actual.ceiling(probe));
+            }
+        }
+
+        for (Comparator<Integer> comparator : COMPARATORS) {
+            if (comparator != null) {
+                ArraySet<Integer> set = new ArraySet<>(elements, comparator);
+                Assert.assertSame("set with comparator should keep binary search", set, set.withHashIndex());
+            }
+        }
+        ArraySet<String> caseInsensitive = new ArraySet<>(Arrays.asList("a", "B"), String.CASE_INSENSITIVE_ORDER);
+        Assert.assertSame(caseInsensitive, caseInsensitive.withHashIndex());
+        Assert.assertTrue(caseInsensitive.withHashIndex().contains("b"));
+    }
+
+    @Test
+    public void test07_bulkOperations() {
+        Random random = new Random(2021);
+        for (Comparator<Integer> comparator : COMPARATORS) {
+            List<Integer> elements = randomList(random, 1_000, 2_000);
+            ArraySet<Integer> whole = new ArraySet<>(elements, comparator);
+            List<Integer> all = new ArrayList<>(whole);
+            List<ArraySet<Integer>> views = new ArrayList<>(Arrays.asList(whole, whole.descendingSet()));
+            if (all.size() > 4) {
+                views.add(whole.subSet(all.get(1), all.get(all.size() / 2)));
+            }
+            for (ArraySet<Integer> set : views) {
+                String context = "size = " + set.size() + ", comparator = " + comparator;
+                List<Integer> expected = new ArrayList<>();
+                set.iterator().forEachRemaining(expected::add);
+
+                List<Integer> visited = new ArrayList<>();
+                set.forEach(visited::add);
+                Assert.assertEquals("forEach " + context, expected, visited);
+
+                visited.clear();
+                set.forEachInRange(expected.size() / 4, expected.size() / 2, visited::add);
+                Assert.assertEquals("forEachInRange " + context,
+                        expected.subList(expected.size() / 4, expected.size() / 2), visited);
+
+                Assert.assertEquals("toArray " + context, expected, Arrays.asList(set.toArray()));
+                Assert.assertEquals("toArray(small) " + context,
+                        expected, Arrays.asList(set.toArray(new Integer[0])));
+                Integer[] large = set.toArray(new Integer[expected.size() + 2]);
+                Assert.assertEquals("toArray(large) " + context, expected, Arrays.asList(large).subList(0, expected.size()));
+                Assert.assertNull("toArray(large) " + context, large[expected.size()]);
+
+                Integer[] dest = new Integer[expected.size() + 3];
+                Assert.assertSame(dest, set.toArray(dest, 3));
+                Assert.assertEquals("toArray(dest, offset) " + context,
+                        expected, Arrays.asList(dest).subList(3, dest.length));
+
+                List<Integer> list = set.asList();
+                Assert.assertEquals("asList " + context, expected, list);
+                Assert.assertEquals("asList.subList " + context, expected.subList(expected.size() / 4, expected.size() / 2),
+                        list.subList(expected.size() / 4, expected.size() / 2));
+                try {
+                    list.set(0, 0);
+                    Assert.fail("asList should be unmodifiable");
+                } catch (UnsupportedOperationException ignored) {
+                }
+
+                for (int[] range : new int[][]{{-1, 0}, {0, expected.size() + 1}, {1, 0}}) {
+                    try {
+                        set.forEachInRange(range[0], range[1], visited::add);
+                        Assert.fail("range " + Arrays.toString(range) + " should be rejected");
+                    } catch (IndexOutOfBoundsException ignored) {
+                    }
+                }
+                try {
+                    set.toArray(new Integer[expected.size()], 1);
+                    Assert.fail("toArray should reject too short array");
+                } catch (IndexOutOfBoundsException ignored) {
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package ru.ifmo.ctddev.koroleva.arrayset.test;
+
+import info.kgeorgiy.java.advanced.arrayset.NavigableSetTest;
+import net.java.quickcheck.collection.Pair;
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.junit.runners.MethodSorters;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * {@link NavigableSetTest} for thread-safe copy-on-write sets. Instead of expecting
+ * {@link UnsupportedOperationException}, <tt>test06_immutable</tt> applies random changes
+ * to the set and compares the results with {@link TreeSet}. Bulk removals follow the {@link Collection} contract
+ * and use <tt>equals</tt> of the given collection, as {@link TreeSet#removeIf} does.
+ * Iterators and views should be snapshots, which never see later changes.
+ */
+@RunWith(JUnit4.class)
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class ConcurrentNavigableSetTest extends NavigableSetTest {
+    private static final int OPERATIONS = 1_000;
+    private static final int THREADS = 4;
+    private static final int PER_THREAD = 2_000;
+
+    @Test
+    @Override
+    public void test06_immutable() {
+        final Random random = new Random(2034);
+        for (final Pair<NamedComparator, List<Integer>> pair : withComparator()) {
+            final List<Integer> elements = pair.getSecond();
+            final Comparator<Integer> comparator = pair.getFirst();
+            final NavigableSet<Integer> set = set(elements, comparator);
+            final NavigableSet<Integer> treeSet = treeSet(elements, comparator);
+            final String context = "(comparator = " + comparator + ", elements = " + elements + ")";
+
+            for (int i = 0; i < OPERATIONS; i++) {
+                final Integer value = random.nextInt(2001) - 1000;
+                final List<Integer> batch = Arrays.asList(value, value + 1, -value);
+                switch (random.nextInt(8)) {
+                    case 0:
+                    case 1:
+                        Assert.assertEquals("add " + context, treeSet.add(value), set.add(value));
+                        break;
+                    case 2:
+                        Assert.assertEquals("remove " + context, treeSet.remove(value), set.remove(value));
+                        break;
+                    case 3:
+                        Assert.assertEquals("addAll " + context, treeSet.addAll(batch), set.addAll(batch));
+                        break;
+                    case 4:
+                        Assert.assertEquals("removeAll " + context, treeSet.removeIf(batch::contains), set.removeAll(batch));
+                        break;
+                    case 5:
+                        Assert.assertEquals("removeIf " + context,
+                                treeSet.removeIf(e -> e % 7 == value % 7), set.removeIf(e -> e % 7 == value % 7));
+                        break;
+                    case 6:
+                        Assert.assertEquals("pollFirst " + context, treeSet.pollFirst(), set.pollFirst());
+                        break;
+                    default:
+                        Assert.assertEquals("pollLast " + context, treeSet.pollLast(), set.pollLast());
+                        break;
+                }
+                Assert.assertEquals("size after " + i + " operations " + context, treeSet.size(), set.size());
+                Assert.assertEquals("ceiling(" + value + ") " + context, treeSet.ceiling(value), set.ceiling(value));
+            }
+            assertEq(set, treeSet, context);
+
+            final List<Integer> retained = new ArrayList<>(new ArrayList<>(treeSet).subList(0, treeSet.size() / 2));
+            Assert.assertEquals("retainAll " + context, treeSet.removeIf(e -> !retained.contains(e)),
+                    set.retainAll(retained));
+            assertEq(set, treeSet, "retainAll " + context);
+
+            set.clear();
+            treeSet.clear();
+            assertEq(set, treeSet, "clear " + context);
+        }
+    }
+
+    @Test
+    public void test18_snapshots() {
+        for (final Pair<NamedComparator, List<Integer>> pair : withComparator()) {
+            final List<Integer> elements = pair.getSecond();
+            final Comparator<Integer> comparator = pair.getFirst();
+            final NavigableSet<Integer> set = set(elements, comparator);
+            final NavigableSet<Integer> treeSet = treeSet(elements, comparator);
+            final String context = "(comparator = " + comparator + ", elements = " + elements + ")";
+
+            final List<Integer> before = new ArrayList<>(treeSet);
+            final Iterator<Integer> iterator = set.iterator();
+            final NavigableSet<Integer> descending = set.descendingSet();
+            set.clear();
+            set.addAll(Arrays.asList(1, 2, 3));
+
+            final List<Integer> iterated = new ArrayList<>();
+            iterator.forEachRemaining(iterated::add);
+            Assert.assertEquals("iterator " + context, before, iterated);
+            assertEq(descending, treeSet.descendingSet(), "descendingSet " + context);
+            assertEq(set, treeSet(Arrays.asList(1, 2, 3), comparator), context);
+            try {
+                final Iterator<Integer> it = set.iterator();
+                it.next();
+                it.remove();
+                Assert.fail("iterator.remove should throw UnsupportedOperationException");
+            } catch (final UnsupportedOperationException ignored) {
+            }
+        }
+    }
+
+    @Test
+    public void test19_concurrentWrites() throws InterruptedException {
+        final NavigableSet<Integer> set = set(Collections.emptyList(), Comparator.naturalOrder());
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicBoolean done = new AtomicBoolean();
+        final Queue<Throwable> errors = new ConcurrentLinkedQueue<>();
+
+        final Thread reader = new Thread(() -> {
+            try {
+                start.await();
+                while (!done.get()) {
+                    Integer previous = null;
+                    int count = 0;
+                    for (final Integer element : set.descendingSet()) {
+                        Assert.assertTrue("snapshot should be sorted", previous == null || previous > element);
+                        previous = element;
+                        count++;
+                    }
+                    Assert.assertTrue("snapshot should not be larger than the set", count <= THREADS * (PER_THREAD + 2));
+                }
+            } catch (final Throwable e) {
+                errors.add(e);
+            }
+        });
+        final List<Thread> writers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            final int thread = t;
+            writers.add(new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < PER_THREAD; i++) {
+                        set.add(i * THREADS + thread);
+                        if (i % 100 == 99) {
+                            set.addAll(Arrays.asList(-1 - thread, -1 - thread - THREADS));
+                            set.removeIf(e -> e < 0 && (-e - 1) % THREADS == thread);
+                        }
+                    }
+                } catch (final Throwable e) {
+                    errors.add(e);
+                }
+            }));
+        }
+        reader.start();
+        writers.forEach(Thread::start);
+        start.countDown();
+        for (final Thread writer : writers) {
+            writer.join();
+        }
+        done.set(true);
+        reader.join();
+
+        if (!errors.isEmpty()) {
+            throw new AssertionError("concurrent access failed", errors.peek());
+        }
+        final List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < THREADS * PER_THREAD; i++) {
+            expected.add(i);
+        }
+        Assert.assertEquals("no write should be lost", expected, new ArrayList<>(set));
+    }
+}
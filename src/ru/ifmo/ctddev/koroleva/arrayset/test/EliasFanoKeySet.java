@@ -0,0 +1,43 @@
+package ru.ifmo.ctddev.koroleva.arrayset.test;
+
+import ru.ifmo.ctddev.koroleva.arrayset.EliasFanoLongSet;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.TreeSet;
+
+/**
+ * {@link EliasFanoLongSet} of integer keys for {@link NaturalOrderNavigableSetTest}.
+ * Keys are shifted by <tt>-Integer.MIN_VALUE</tt>, so negative integers become non-negative longs
+ * and their order is kept.
+ */
+public class EliasFanoKeySet extends IntegerKeySet<Long> {
+    public EliasFanoKeySet() {
+        this(Collections.<Integer>emptyList());
+    }
+
+    public EliasFanoKeySet(Collection<Integer> elements) {
+        this(elements, null);
+    }
+
+    public EliasFanoKeySet(Collection<Integer> elements, Comparator<Integer> comparator) {
+        super(encode(elements), EliasFanoKeySet::toKey, EliasFanoKeySet::fromKey, comparator);
+    }
+
+    private static EliasFanoLongSet encode(Collection<Integer> elements) {
+        TreeSet<Long> keys = new TreeSet<>();
+        for (Integer element : elements) {
+            keys.add(toKey(element));
+        }
+        return new EliasFanoLongSet(keys);
+    }
+
+    private static Long toKey(Integer element) {
+        return (long) element - Integer.MIN_VALUE;
+    }
+
+    private static Integer fromKey(Long key) {
+        return (int) (key + Integer.MIN_VALUE);
+    }
+}
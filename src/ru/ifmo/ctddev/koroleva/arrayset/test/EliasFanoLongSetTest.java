@@ -0,0 +1,95 @@
+package ru.ifmo.ctddev.koroleva.arrayset.test;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.junit.runners.MethodSorters;
+import ru.ifmo.ctddev.koroleva.arrayset.EliasFanoLongSet;
+
+import java.util.*;
+
+/**
+ * Tests of {@link EliasFanoLongSet}, which are not covered by {@link NaturalOrderNavigableSetTest}:
+ * key ranges and sizes, for which the encoding uses several sampled words and wide low parts.
+ *
+ * Usage: <tt>java org.junit.runner.JUnitCore ru.ifmo.ctddev.koroleva.arrayset.test.EliasFanoLongSetTest</tt>.
+ */
+@RunWith(JUnit4.class)
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class EliasFanoLongSetTest {
+    private static void check(TreeSet<Long> expected, Random random, String context) {
+        EliasFanoLongSet set = new EliasFanoLongSet(expected);
+        Assert.assertEquals(context, new ArrayList<>(expected), new ArrayList<>(set));
+        Assert.assertEquals(context, new ArrayList<>(expected.descendingSet()), new ArrayList<>(set.descendingSet()));
+
+        List<Long> keys = new ArrayList<>(expected);
+        for (int i = 0; i < 10_000; i++) {
+            long probe;
+            if (!keys.isEmpty() && i % 2 == 0) {
+                probe = keys.get(random.nextInt(keys.size())) + random.nextInt(3) - 1;
+            } else {
+                probe = (i % 4 == 1) ? random.nextLong() : expected.isEmpty() ? i : random.nextInt(Integer.MAX_VALUE);
+            }
+            String probeContext = context + ", probe = " + probe;
+            Assert.assertEquals(probeContext, expected.contains(probe), set.contains(probe));
+            Assert.assertEquals(probeContext, expected.ceiling(probe), set.ceiling(probe));
+            Assert.assertEquals(probeContext, expected.floor(probe), set.floor(probe));
+            Assert.assertEquals(probeContext, expected.higher(probe), set.higher(probe));
+            Assert.assertEquals(probeContext, expected.lower(probe), set.lower(probe));
+        }
+        if (keys.size() > 4) {
+            Long from = keys.get(keys.size() / 4);
+            Long to = keys.get(keys.size() * 3 / 4);
+            Assert.assertEquals(context, new ArrayList<>(expected.subSet(from, false, to, true)),
+                    new ArrayList<>(set.subSet(from, false, to, true)));
+            Assert.assertEquals(context, expected.subSet(from, to).size(), set.subSet(from, to).size());
+        }
+    }
+
+    @Test
+    public void test01_distributions() {
+        Random random = new Random(2035);
+        for (int size : new int[]{0, 1, 255, 256, 257, 10_000}) {
+            for (long bound : new long[]{1L, 2L * size + 1, 1L << 40, Long.MAX_VALUE}) {
+                TreeSet<Long> keys = new TreeSet<>();
+                while (keys.size() < Math.min(size, bound)) {
+                    keys.add((bound == Long.MAX_VALUE) ? random.nextLong() & Long.MAX_VALUE
+                            : (long) (random.nextDouble() * bound));
+                }
+                check(keys, random, "size = " + size + ", bound = " + bound);
+            }
+        }
+    }
+
+    @Test
+    public void test02_extremeKeys() {
+        Random random = new Random(2036);
+        check(new TreeSet<>(Arrays.asList(0L, Long.MAX_VALUE)), random, "0 and max");
+        check(new TreeSet<>(Collections.singletonList(Long.MAX_VALUE)), random, "max");
+
+        TreeSet<Long> dense = new TreeSet<>();
+        for (long key = 0; key < 5_000; key++) {
+            dense.add(key);
+            dense.add(Long.MAX_VALUE - key);
+        }
+        check(dense, random, "dense ends");
+    }
+
+    @Test
+    public void test03_invalidKeys() {
+        for (long[] keys : new long[][]{{-1}, {1, 1}, {2, 1}}) {
+            try {
+                new EliasFanoLongSet(keys);
+                Assert.fail("keys " + Arrays.toString(keys) + " should be rejected");
+            } catch (IllegalArgumentException ignored) {
+            }
+        }
+        try {
+            new EliasFanoLongSet(new TreeSet<>(Arrays.asList(1L, 2L)).descendingSet());
+            Assert.fail("descending set should be rejected");
+        } catch (IllegalArgumentException ignored) {
+        }
+    }
+}
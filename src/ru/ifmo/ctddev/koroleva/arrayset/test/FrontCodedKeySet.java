@@ -0,0 +1,50 @@
+package ru.ifmo.ctddev.koroleva.arrayset.test;
+
+import ru.ifmo.ctddev.koroleva.arrayset.FrontCodedStringSet;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * {@link FrontCodedStringSet} of integer keys for {@link NaturalOrderNavigableSetTest}.
+ * Keys are written as eight hex digits of <tt>key - Integer.MIN_VALUE</tt>, which have the same order as integers.
+ */
+public class FrontCodedKeySet extends IntegerKeySet<String> {
+    public FrontCodedKeySet() {
+        this(Collections.<Integer>emptyList());
+    }
+
+    public FrontCodedKeySet(Collection<Integer> elements) {
+        this(elements, null);
+    }
+
+    public FrontCodedKeySet(Collection<Integer> elements, Comparator<Integer> comparator) {
+        super(encode(elements), FrontCodedKeySet::toKey, FrontCodedKeySet::fromKey, comparator);
+    }
+
+    private static FrontCodedStringSet encode(Collection<Integer> elements) {
+        List<String> keys = new ArrayList<>(elements.size());
+        for (Integer element : elements) {
+            keys.add(toKey(element));
+        }
+        return new FrontCodedStringSet(keys);
+    }
+
+    private static String toKey(Integer element) {
+        // String.format is too slow for the performance tests
+        char[] digits = new char[8];
+        int bits = element - Integer.MIN_VALUE;
+        for (int i = digits.length - 1; i >= 0; i--) {
+            digits[i] = Character.forDigit(bits & 0xf, 16);
+            bits >>>= 4;
+        }
+        return new String(digits);
+    }
+
+    private static Integer fromKey(String key) {
+        return Integer.parseUnsignedInt(key, 16) + Integer.MIN_VALUE;
+    }
+}
@@ -0,0 +1,92 @@
+package ru.ifmo.ctddev.koroleva.arrayset.test;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.junit.runners.MethodSorters;
+import ru.ifmo.ctddev.koroleva.arrayset.FrontCodedStringSet;
+
+import java.util.*;
+
+/**
+ * Tests of {@link FrontCodedStringSet}, which are not covered by {@link NaturalOrderNavigableSetTest}:
+ * strings outside of ASCII, including supplementary characters and unpaired surrogates, and prefix views.
+ *
+ * Usage: <tt>java org.junit.runner.JUnitCore ru.ifmo.ctddev.koroleva.arrayset.test.FrontCodedStringSetTest</tt>.
+ */
+@RunWith(JUnit4.class)
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class FrontCodedStringSetTest {
+    private static final char[] ALPHABET = {
+            'a', 'b', '\0', '\u007F', '\u00E9', '\u07FF', '\u0800', '\uD800', '\uDBFF', '\uDC00', '\uDFFF', '\uE000', '\uFFFF'
+    };
+
+    private static String randomString(Random random) {
+        StringBuilder sb = new StringBuilder();
+        int length = random.nextInt(6);
+        for (int i = 0; i < length; i++) {
+            if (random.nextInt(8) == 0) {
+                sb.appendCodePoint(0x10000 + random.nextInt(0x100000));
+            } else {
+                sb.append(ALPHABET[random.nextInt(ALPHABET.length)]);
+            }
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void test01_unpairedSurrogates() {
+        FrontCodedStringSet set = new FrontCodedStringSet(Arrays.asList("a\uD800", "a\uD801", "b"));
+        Assert.assertTrue(set.contains("a\uD800"));
+        Assert.assertTrue(set.contains("a\uD801"));
+        Assert.assertFalse(set.contains("a?"));
+        Assert.assertEquals(Arrays.asList("a\uD800", "a\uD801", "b"), new ArrayList<>(set));
+    }
+
+    @Test
+    public void test02_order() {
+        Random random = new Random(2036);
+        for (int size : new int[]{1, 15, 16, 17, 1_000}) {
+            List<String> strings = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                strings.add(randomString(random));
+            }
+            TreeSet<String> expected = new TreeSet<>(strings);
+            FrontCodedStringSet set = new FrontCodedStringSet(strings);
+            Assert.assertEquals("size = " + size, new ArrayList<>(expected), new ArrayList<>(set));
+            for (int i = 0; i < 1_000; i++) {
+                String probe = (i % 2 == 0) ? strings.get(random.nextInt(size)) : randomString(random);
+                String context = "size = " + size + ", probe = " + probe;
+                Assert.assertEquals(context, expected.contains(probe), set.contains(probe));
+                Assert.assertEquals(context, expected.ceiling(probe), set.ceiling(probe));
+                Assert.assertEquals(context, expected.lower(probe), set.lower(probe));
+            }
+        }
+    }
+
+    @Test
+    public void test03_prefixSet() {
+        Random random = new Random(2037);
+        List<String> strings = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            strings.add(randomString(random));
+        }
+        TreeSet<String> expected = new TreeSet<>(strings);
+        FrontCodedStringSet set = new FrontCodedStringSet(strings);
+        for (int i = 0; i < 200; i++) {
+            String prefix = randomString(random);
+            prefix = prefix.substring(0, Math.min(prefix.length(), 2));
+            List<String> withPrefix = new ArrayList<>();
+            for (String s : expected) {
+                if (s.startsWith(prefix)) {
+                    withPrefix.add(s);
+                }
+            }
+            FrontCodedStringSet view = set.prefixSet(prefix);
+            Assert.assertEquals("prefix = " + prefix, withPrefix, new ArrayList<>(view));
+            Assert.assertEquals("prefix = " + prefix, withPrefix.size(), view.size());
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package ru.ifmo.ctddev.koroleva.arrayset.test;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Set of integers, which keeps keys of another type in the set under test and converts them both ways.
+ * Conversions must preserve order, then {@link info.kgeorgiy.java.advanced.arrayset.NavigableSetTest},
+ * which works with integers, checks the set under test.
+ * All queries, views and modifications go to the set under test.
+ *
+ * @param <K> type of keys of the set under test.
+ */
+public class IntegerKeySet<K> extends AbstractSet<Integer> implements NavigableSet<Integer> {
+    private final NavigableSet<K> keys;
+    private final Function<Integer, K> toKey;
+    private final Function<K, Integer> fromKey;
+    private final Comparator<? super Integer> comparator;
+
+    /**
+     * @param keys set under test.
+     * @param toKey conversion of integer into key.
+     * @param fromKey conversion of key into integer.
+     * @param comparator comparator, which should be returned by {@link #comparator()}.
+     */
+    protected IntegerKeySet(NavigableSet<K> keys, Function<Integer, K> toKey, Function<K, Integer> fromKey,
+                            Comparator<? super Integer> comparator) {
+        super();
+        this.keys = keys;
+        this.toKey = toKey;
+        this.fromKey = fromKey;
+        this.comparator = comparator;
+    }
+
+    private Integer element(K key) {
+        return (key == null) ? null : fromKey.apply(key);
+    }
+
+    private IntegerKeySet<K> view(NavigableSet<K> keys, Comparator<? super Integer> comparator) {
+        return new IntegerKeySet<>(keys, toKey, fromKey, comparator);
+    }
+
+    private Iterator<Integer> elements(Iterator<K> iterator) {
+        return new Iterator<Integer>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public Integer next() {
+                return fromKey.apply(iterator.next());
+            }
+
+            @Override
+            public void remove() {
+                iterator.remove();
+            }
+        };
+    }
+
+    @Override
+    public Integer lower(Integer e) {
+        return element(keys.lower(toKey.apply(e)));
+    }
+
+    @Override
+    public Integer floor(Integer e) {
+        return element(keys.floor(toKey.apply(e)));
+    }
+
+    @Override
+    public Integer ceiling(Integer e) {
+        return element(keys.ceiling(toKey.apply(e)));
+    }
+
+    @Override
+    public Integer higher(Integer e) {
+        return element(keys.higher(toKey.apply(e)));
+    }
+
+    @Override
+    public Integer pollFirst() {
+        return element(keys.pollFirst());
+    }
+
+    @Override
+    public Integer pollLast() {
+        return element(keys.pollLast());
+    }
+
+    @Override
+    public int size() {
+        return keys.size();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Integer && keys.contains(toKey.apply((Integer) o));
+    }
+
+    @Override
+    public boolean add(Integer e) {
+        return keys.add(toKey.apply(e));
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return o instanceof Integer && keys.remove(toKey.apply((Integer) o));
+    }
+
+    @Override
+    public void clear() {
+        keys.clear();
+    }
+
+    @Override
+    public Iterator<Integer> iterator() {
+        return elements(keys.iterator());
+    }
+
+    @Override
+    public NavigableSet<Integer> descendingSet() {
+        return view(keys.descendingSet(), Collections.reverseOrder(comparator));
+    }
+
+    @Override
+    public Iterator<Integer> descendingIterator() {
+        return elements(keys.descendingIterator());
+    }
+
+    @Override
+    public NavigableSet<Integer> subSet(Integer fromElement, boolean fromInclusive,
+                                        Integer toElement, boolean toInclusive) {
+        return view(keys.subSet(toKey.apply(fromElement), fromInclusive, toKey.apply(toElement), toInclusive),
+                comparator);
+    }
+
+    @Override
+    public NavigableSet<Integer> headSet(Integer toElement, boolean inclusive) {
+        return view(keys.headSet(toKey.apply(toElement), inclusive), comparator);
+    }
+
+    @Override
+    public NavigableSet<Integer> tailSet(Integer fromElement, boolean inclusive) {
+        return view(keys.tailSet(toKey.apply(fromElement), inclusive), comparator);
+    }
+
+    @Override
+    public Comparator<? super Integer> comparator() {
+        return comparator;
+    }
+
+    @Override
+    public SortedSet<Integer> subSet(Integer fromElement, Integer toElement) {
+        return subSet(fromElement, true, toElement, false);
+    }
+
+    @Override
+    public SortedSet<Integer> headSet(Integer toElement) {
+        return headSet(toElement, false);
+    }
+
+    @Override
+    public SortedSet<Integer> tailSet(Integer fromElement) {
+        return tailSet(fromElement, true);
+    }
+
+    @Override
+    public Integer first() {
+        return fromKey.apply(keys.first());
+    }
+
+    @Override
+    public Integer last() {
+        return fromKey.apply(keys.last());
+    }
+}
@@ -0,0 +1,59 @@
+package ru.ifmo.ctddev.koroleva.arrayset.test;
+
+import ru.ifmo.ctddev.koroleva.arrayset.ArraySet;
+import ru.ifmo.ctddev.koroleva.arrayset.LongArraySet;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * {@link LongArraySet} of integer keys for {@link NaturalOrderNavigableSetTest}.
+ * Keys are written into a temporary file, which is mapped and then deleted.
+ */
+public class LongArrayKeySet extends IntegerKeySet<Long> {
+    public LongArrayKeySet() {
+        this(Collections.<Integer>emptyList());
+    }
+
+    public LongArrayKeySet(Collection<Integer> elements) {
+        this(elements, null);
+    }
+
+    public LongArrayKeySet(Collection<Integer> elements, Comparator<Integer> comparator) {
+        super(open(elements), Integer::longValue, Long::intValue, comparator);
+    }
+
+    private static LongArraySet open(Collection<Integer> elements) {
+        List<Long> keys = new ArrayList<>(elements.size());
+        for (Integer element : elements) {
+            keys.add(element.longValue());
+        }
+        try {
+            Path file = Files.createTempFile("LongArrayKeySet", ".bin");
+            try {
+                LongArraySet.write(new ArraySet<>(keys), file);
+                return LongArraySet.open(file);
+            } finally {
+                delete(file);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.delete(file);
+        } catch (IOException e) {
+            // Mapped file can't be deleted on some systems
+            file.toFile().deleteOnExit();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package ru.ifmo.ctddev.koroleva.arrayset.test;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.junit.runners.MethodSorters;
+import ru.ifmo.ctddev.koroleva.arrayset.ArraySet;
+import ru.ifmo.ctddev.koroleva.arrayset.LongArraySet;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Tests of {@link LongArraySet}, which are not covered by {@link NaturalOrderNavigableSetTest}.
+ *
+ * Usage: <tt>java org.junit.runner.JUnitCore ru.ifmo.ctddev.koroleva.arrayset.test.LongArraySetTest</tt>.
+ */
+@RunWith(JUnit4.class)
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class LongArraySetTest {
+    private static Path write(Collection<Long> keys) throws IOException {
+        Path file = Files.createTempFile("LongArraySetTest", ".bin");
+        file.toFile().deleteOnExit();
+        LongArraySet.write(new ArraySet<>(keys), file);
+        return file;
+    }
+
+    @Test
+    public void test01_corruptedCount() throws IOException {
+        Path file = write(Arrays.asList(1L, 2L, 3L));
+        // 3 + 2^61 keys take 24 bytes modulo 2^64, as 3 keys do
+        try (RandomAccessFile out = new RandomAccessFile(file.toFile(), "rw")) {
+            out.seek(Long.BYTES);
+            out.writeLong(3 + (1L << 61));
+        }
+        try {
+            LongArraySet.open(file);
+            Assert.fail("open should reject wrong number of keys");
+        } catch (IOException e) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void test02_descendingSet() throws IOException {
+        Random random = new Random(2028);
+        List<Long> keys = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            keys.add((long) random.nextInt(3000) - 1500);
+        }
+        NavigableSet<Long> expected = new TreeSet<>(keys).descendingSet();
+        NavigableSet<Long> set = LongArraySet.open(write(keys)).descendingSet();
+
+        Assert.assertEquals(new ArrayList<>(expected), new ArrayList<>(set));
+        Assert.assertEquals(expected.first(), set.first());
+        Assert.assertEquals(expected.last(), set.last());
+        Assert.assertEquals(new ArrayList<>(new TreeSet<>(keys)), new ArrayList<>(set.descendingSet()));
+        for (int i = 0; i < 1000; i++) {
+            long key = random.nextInt(3200) - 1600;
+            long other = random.nextInt(3200) - 1600;
+            String context = "key = " + key + ", other = " + other;
+            Assert.assertEquals("lower " + context, expected.lower(key), set.lower(key));
+            Assert.assertEquals("floor " + context, expected.floor(key), set.floor(key));
+            Assert.assertEquals("ceiling " + context, expected.ceiling(key), set.ceiling(key));
+            Assert.assertEquals("higher " + context, expected.higher(key), set.higher(key));
+            Assert.assertEquals("headSet " + context,
+                    new ArrayList<>(expected.headSet(key, i % 2 == 0)), new ArrayList<>(set.headSet(key, i % 2 == 0)));
+            Assert.assertEquals("tailSet " + context,
+                    new ArrayList<>(expected.tailSet(key, i % 3 == 0)), new ArrayList<>(set.tailSet(key, i % 3 == 0)));
+            long from = Math.max(key, other);
+            long to = Math.min(key, other);
+            Assert.assertEquals("subSet " + context,
+                    new ArrayList<>(expected.subSet(from, true, to, false)),
+                    new ArrayList<>(set.subSet(from, true, to, false)));
+        }
+        Assert.assertTrue("descending set should be ordered by comparator",
+                set.comparator().compare(2L, 1L) < 0);
+    }
+}
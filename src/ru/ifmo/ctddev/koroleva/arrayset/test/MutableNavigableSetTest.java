@@ -0,0 +1,128 @@
+package ru.ifmo.ctddev.koroleva.arrayset.test;
+
+import info.kgeorgiy.java.advanced.arrayset.NavigableSetTest;
+import net.java.quickcheck.collection.Pair;
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.junit.runners.MethodSorters;
+
+import java.util.*;
+
+/**
+ * {@link NavigableSetTest} for mutable sets. Instead of expecting
+ * {@link UnsupportedOperationException}, <tt>test06_immutable</tt> applies random changes
+ * to the set, to its views and through its iterators, and compares the results with {@link TreeSet}.
+ */
+@RunWith(JUnit4.class)
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class MutableNavigableSetTest extends NavigableSetTest {
+    private static final int OPERATIONS = 1_000;
+
+    @Test
+    @Override
+    public void test06_immutable() {
+        final Random random = new Random(2033);
+        for (final Pair<NamedComparator, List<Integer>> pair : withComparator()) {
+            final List<Integer> elements = pair.getSecond();
+            final Comparator<Integer> comparator = pair.getFirst();
+            final NavigableSet<Integer> set = set(elements, comparator);
+            final NavigableSet<Integer> treeSet = treeSet(elements, comparator);
+            final String context = "(comparator = " + comparator + ", elements = " + elements + ")";
+            mutate(random, set, treeSet, context);
+            assertEq(set, treeSet, context);
+
+            set.clear();
+            treeSet.clear();
+            assertEq(set, treeSet, "clear " + context);
+        }
+    }
+
+    @Test
+    public void test18_liveViews() {
+        final Random random = new Random(2034);
+        for (final Pair<NamedComparator, List<Integer>> pair : withComparator()) {
+            final List<Integer> elements = pair.getSecond();
+            final Comparator<Integer> comparator = pair.getFirst();
+            final NavigableSet<Integer> set = set(elements, comparator);
+            final NavigableSet<Integer> treeSet = treeSet(elements, comparator);
+            final String context = "(comparator = " + comparator + ", elements = " + elements + ")";
+
+            final int from = random.nextInt(2001) - 1000;
+            final int to = from + random.nextInt(500);
+            if (treeSet.comparator().compare(from, to) > 0) {
+                continue;
+            }
+            final NavigableSet<Integer> subSet = set.subSet(from, true, to, false);
+            final NavigableSet<Integer> descending = set.descendingSet();
+            final NavigableSet<Integer> head = set.headSet(to, true);
+            mutate(random, set, treeSet, context);
+            assertEq(subSet, treeSet.subSet(from, true, to, false), "subSet " + context);
+            assertEq(descending, treeSet.descendingSet(), "descendingSet " + context);
+            assertEq(head, treeSet.headSet(to, true), "headSet " + context);
+
+            mutate(random, subSet, treeSet.subSet(from, true, to, false), "subSet " + context);
+            mutate(random, descending, treeSet.descendingSet(), "descendingSet " + context);
+            assertEq(set, treeSet, context);
+        }
+    }
+
+    private static void mutate(final Random random, final NavigableSet<Integer> set,
+                               final NavigableSet<Integer> treeSet, final String context) {
+        for (int i = 0; i < OPERATIONS; i++) {
+            final Integer value = random.nextInt(2001) - 1000;
+            final boolean inRange = fits(treeSet, value);
+            switch (random.nextInt(8)) {
+                case 0:
+                case 1:
+                case 2:
+                    if (inRange) {
+                        Assert.assertEquals("add(" + value + ") " + context, treeSet.add(value), set.add(value));
+                    }
+                    break;
+                case 3:
+                case 4:
+                    Assert.assertEquals("remove(" + value + ") " + context, treeSet.remove(value), set.remove(value));
+                    break;
+                case 5:
+                    Assert.assertEquals("pollFirst " + context, treeSet.pollFirst(), set.pollFirst());
+                    break;
+                case 6:
+                    Assert.assertEquals("pollLast " + context, treeSet.pollLast(), set.pollLast());
+                    break;
+                default:
+                    final Iterator<Integer> iterator = set.iterator();
+                    final Iterator<Integer> treeIterator = treeSet.iterator();
+                    final int skip = random.nextInt(treeSet.size() + 1);
+                    for (int j = 0; j < skip; j++) {
+                        Assert.assertEquals("iterator " + context, treeIterator.next(), iterator.next());
+                    }
+                    if (skip > 0) {
+                        iterator.remove();
+                        treeIterator.remove();
+                    }
+                    break;
+            }
+            Assert.assertEquals("size after " + i + " operations " + context, treeSet.size(), set.size());
+            Assert.assertEquals("contains(" + value + ") " + context, treeSet.contains(value), set.contains(value));
+            Assert.assertEquals("ceiling(" + value + ") " + context, treeSet.ceiling(value), set.ceiling(value));
+            Assert.assertEquals("lower(" + value + ") " + context, treeSet.lower(value), set.lower(value));
+        }
+        Assert.assertEquals("elements " + context, new ArrayList<>(treeSet), new ArrayList<>(set));
+    }
+
+    private static boolean fits(final NavigableSet<Integer> treeSet, final Integer value) {
+        if (treeSet.contains(value)) {
+            return true;
+        }
+        try {
+            treeSet.add(value);
+            treeSet.remove(value);
+            return true;
+        } catch (final IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package ru.ifmo.ctddev.koroleva.arrayset.test;
+
+import info.kgeorgiy.java.advanced.arrayset.NavigableSetTest;
+import net.java.quickcheck.collection.Pair;
+import org.junit.FixMethodOrder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.junit.runners.MethodSorters;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link NavigableSetTest} for sets, which keep their keys only in natural order.
+ * Of all generated comparators only natural order is passed to the set under test,
+ * which should return it from <tt>comparator()</tt> as it is.
+ */
+@RunWith(JUnit4.class)
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class NaturalOrderNavigableSetTest extends NavigableSetTest {
+    @Override
+    protected Iterable<Pair<NamedComparator, List<Integer>>> withComparator() {
+        List<Pair<NamedComparator, List<Integer>>> pairs = new ArrayList<>();
+        for (Pair<NamedComparator, List<Integer>> pair : super.withComparator()) {
+            if ("Natural order".equals(pair.getFirst().toString())) {
+                pairs.add(pair);
+            }
+        }
+        return pairs;
+    }
+}
@@ -0,0 +1,20 @@
+package ru.ifmo.ctddev.koroleva.arrayset.test;
+
+import info.kgeorgiy.java.advanced.arrayset.NavigableSetTest;
+import info.kgeorgiy.java.advanced.base.BaseTester;
+
+/**
+ * Runs {@link NavigableSetTest} and its variants for sets, which don't fit it as they are.
+ *
+ * Usage: <tt>Tester NaturalNavigableSet ru.ifmo.ctddev.koroleva.arrayset.test.LongArrayKeySet</tt>.
+ */
+public class Tester extends BaseTester {
+    public static void main(String[] args) {
+        new Tester()
+                .add("NavigableSet", NavigableSetTest.class)
+                .add("NaturalNavigableSet", NaturalOrderNavigableSetTest.class)
+                .add("MutableNavigableSet", MutableNavigableSetTest.class)
+                .add("ConcurrentNavigableSet", ConcurrentNavigableSetTest.class)
+                .run(args);
+    }
+}
@@ -5,24 +5,61 @@ import info.kgeorgiy.java.advanced.mapper.ParallelMapper;
 import ru.ifmo.ctddev.koroleva.mapper.ParallelMapperImpl;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
 
 /**
  * Class implements methods of interface {@link info.kgeorgiy.java.advanced.concurrent.ListIP}, which
  * do some operations with list in parallel.
+ *
+ * Instances, which are made without mapper, share one default mapper with
+ * as many daemon threads as there are processors. It is made on first use and
+ * may be stopped with {@link #closeDefaultMapper()}.
+ *
+ * By default list is split into one equal part per thread. Adaptive instances split it into
+ * many small chunks instead, which threads take one by one as they become free,
+ * so threads with cheap elements don't wait for thread with expensive ones.
+ *
+ * Lists without fast random access, such as {@link java.util.LinkedList}, are copied into an array
+ * in one sequential pass before splitting. Elements of any {@link Iterable} or {@link Spliterator}
+ * are passed to every operation the same way through {@link #toRandomAccess(Iterable)} and
+ * {@link #toList(Spliterator)}, for example <tt>maximum(i, toRandomAccess(set), comparator)</tt>.
  */
 
 public class IterativeParallelism implements ListIP {
 
+    private static final long CHUNK_NANOS = 100_000;
+    private static final int FIRST_CHUNK = 16;
+    private static final int PARALLEL_COPY_THRESHOLD = 1 << 16;
+    private static final int SEQUENTIAL_SELECT_THRESHOLD = 1 << 12;
+
+    private static ParallelMapperImpl defaultMapper = null;
+
     /**
-     * Just empty constructor. Does nothing.
+     * Constructor, which uses shared default mapper.
      */
     public IterativeParallelism() {}
 
     private ParallelMapper mapper = null;
+    private boolean adaptive = false;
 
     /**
      * Constructor from ParallelMapper.
@@ -35,29 +72,247 @@ public class IterativeParallelism implements ListIP {
         this.mapper = mapper;
     }
 
-    @SuppressWarnings("unchecked")
-    private <R, T, E> E splitToThreads(int i, List<? extends R> list,
-                                       Function<List<? extends R>, T> functionOnThread, Function<List<T>, E> functionToMerge)
+    /**
+     * Constructor, which uses shared default mapper and chooses way of splitting list.
+     *
+     * @param adaptive <tt>true</tt>, if list should be split into chunks, which threads take dynamically.
+     */
+    public IterativeParallelism(boolean adaptive) {
+        this.adaptive = adaptive;
+    }
+
+    /**
+     * Constructor from ParallelMapper, which also chooses way of splitting list.
+     *
+     * @param mapper mapper to set.
+     * @param adaptive <tt>true</tt>, if list should be split into chunks, which threads take dynamically.
+     */
+    public IterativeParallelism(ParallelMapper mapper, boolean adaptive) {
+        this.mapper = mapper;
+        this.adaptive = adaptive;
+    }
+
+    private static synchronized ParallelMapper defaultMapper() {
+        if (defaultMapper == null) {
+            defaultMapper = new ParallelMapperImpl(Runtime.getRuntime().availableProcessors(), true);
+        }
+        return defaultMapper;
+    }
+
+    /**
+     * Closes shared default mapper and stops its threads.
+     * Calls, which are already running, may fail. The next call of an instance without mapper
+     * makes a new default mapper.
+     *
+     * @throws InterruptedException if something was interrupted.
+     */
+    public static synchronized void closeDefaultMapper() throws InterruptedException {
+        if (defaultMapper != null) {
+            defaultMapper.close();
+            defaultMapper = null;
+        }
+    }
+
+    /**
+     * Splits <tt>list</tt> into parts, applies <tt>functionOnThread</tt> to every part in parallel
+     * and merges results of parts, which are given in order of list, with <tt>functionToMerge</tt>.
+     */
+    <R, T, E> E splitToThreads(int i, List<? extends R> list,
+                               Function<List<? extends R>, T> functionOnThread, Function<List<T>, E> functionToMerge)
+            throws InterruptedException {
+        return splitToIndexedThreads(i, list, (index, sublist) -> functionOnThread.apply(sublist), functionToMerge);
+    }
+
+    /**
+     * Same as {@link #splitToThreads}, but function on thread also gets index of its part of list,
+     * parts are numbered from <tt>0</tt> in order of list.
+     */
+    private <R, T, E> E splitToIndexedThreads(int i, List<? extends R> list,
+                                              BiFunction<Integer, List<? extends R>, T> functionOnThread,
+                                              Function<List<T>, E> functionToMerge)
             throws InterruptedException {
 
-        int cnt = Math.min(i, list.size());
+        list = toRandomAccess(list);
+        int cnt = Math.max(1, Math.min(i, list.size()));
+        if (adaptive && cnt > 1) {
+            return splitToChunks(cnt, list, functionOnThread, functionToMerge);
+        }
         List<List<? extends R>> sublists = new ArrayList<>();
+        List<Integer> indices = new ArrayList<>();
         List<T> results;
 
         for (int j = 0; j < cnt - 1; j++) {
             sublists.add(list.subList(j * (list.size() / cnt), (j + 1) * (list.size() / cnt)));
         }
         sublists.add(list.subList((list.size() / cnt) * (cnt - 1), list.size()));
+        for (int j = 0; j < cnt; j++) {
+            indices.add(j);
+        }
+        Function<Integer, T> task = index -> functionOnThread.apply(index, sublists.get(index));
 
-        if (mapper == null) {
-            ParallelMapperImpl localMapper = new ParallelMapperImpl(i);
-            results = localMapper.map(functionOnThread, sublists);
+        if (cnt == 1) {
+            results = new ArrayList<>();
+            results.add(task.apply(0));
         } else {
-            results = mapper.map(functionOnThread, sublists);
+            results = runner().map(task, indices);
         }
         return functionToMerge.apply(results);
     }
 
+    /**
+     * Returns list with elements of <tt>iterable</tt>, which can be split for parallel operations in O(1).
+     * Lists with fast random access are returned as they are, other sources are copied
+     * into an array in one sequential pass.
+     *
+     * @param iterable source of elements.
+     * @param <T> type of elements.
+     * @return random access list with the same elements in the same order.
+     */
+    public static <T> List<T> toRandomAccess(Iterable<T> iterable) {
+        if (iterable instanceof List && iterable instanceof RandomAccess) {
+            return (List<T>) iterable;
+        }
+        return toList(iterable.spliterator());
+    }
+
+    /**
+     * Returns random access list with all remaining elements of <tt>spliterator</tt>
+     * in one sequential pass. List is presized, if spliterator knows its exact size.
+     *
+     * @param spliterator source of elements.
+     * @param <T> type of elements.
+     * @return list of elements in encounter order.
+     */
+    public static <T> List<T> toList(Spliterator<T> spliterator) {
+        long size = spliterator.getExactSizeIfKnown();
+        List<T> result = new ArrayList<>((size >= 0 && size < Integer.MAX_VALUE) ? (int) size : 16);
+        spliterator.forEachRemaining(result::add);
+        return result;
+    }
+
+    private ParallelMapper runner() {
+        return (mapper == null) ? defaultMapper() : mapper;
+    }
+
+    /**
+     * Same as {@link #splitToIndexedThreads}, but runs <tt>cnt</tt> workers, which take chunks of list
+     * until the whole list is processed. Chunk is numbered in order of list.
+     * Worker chooses size of the next chunk so, that it takes about {@link #CHUNK_NANOS}
+     * according to time of its previous chunk, but not more than half of remaining elements per worker
+     * (guided self-scheduling), so the last chunks are small and threads finish at about the same time.
+     */
+    private <R, T, E> E splitToChunks(int cnt, List<? extends R> list,
+                                      BiFunction<Integer, List<? extends R>, T> functionOnThread,
+                                      Function<List<T>, E> functionToMerge)
+            throws InterruptedException {
+        Chunks<T> chunks = new Chunks<>(list.size(), cnt);
+        List<Integer> workers = new ArrayList<>();
+        for (int j = 0; j < cnt; j++) {
+            workers.add(j);
+        }
+
+        runner().map(worker -> {
+            takeChunks(chunks, chunk -> functionOnThread.apply(chunk[0], list.subList(chunk[1], chunk[2])));
+            return null;
+        }, workers);
+        return functionToMerge.apply(chunks.results());
+    }
+
+    /**
+     * Takes chunks, until the whole list is processed, and applies <tt>process</tt> to index, start and end of chunk.
+     * Size of the next chunk is chosen according to time of the previous one.
+     */
+    private static <T> void takeChunks(Chunks<T> chunks, Function<int[], T> process) {
+        int size = FIRST_CHUNK;
+        int[] chunk;
+        while ((chunk = chunks.claim(size)) != null) {
+            long start = System.nanoTime();
+            T result = process.apply(chunk);
+            long time = System.nanoTime() - start;
+            chunks.complete(chunk[0], result);
+            size = (int) Math.min(Integer.MAX_VALUE, CHUNK_NANOS * (chunk[2] - chunk[1]) / Math.max(1, time));
+        }
+    }
+
+    /**
+     * Splits <tt>list</tt> as {@link #splitToIndexedThreads} does, but every thread accumulates its parts
+     * into one state, which is created by <tt>newState</tt>, and states of threads are merged
+     * with <tt>functionToMerge</tt>. So in adaptive mode there is one state per worker instead of one per chunk.
+     * States are given in no particular order, parts are given with their positions in list.
+     */
+    private <R, A, E> E accumulateInThreads(int i, List<? extends R> list, Supplier<A> newState,
+                                            PartConsumer<A, R> functionOnThread, Function<List<A>, E> functionToMerge)
+            throws InterruptedException {
+        List<? extends R> source = toRandomAccess(list);
+        int cnt = Math.max(1, Math.min(i, source.size()));
+        if (adaptive && cnt > 1) {
+            Chunks<Void> chunks = new Chunks<>(source.size(), cnt);
+            List<Integer> workers = new ArrayList<>();
+            for (int j = 0; j < cnt; j++) {
+                workers.add(j);
+            }
+            return functionToMerge.apply(runner().map(worker -> {
+                A state = newState.get();
+                takeChunks(chunks, chunk -> {
+                    functionOnThread.accept(state, chunk[1], source.subList(chunk[1], chunk[2]));
+                    return null;
+                });
+                return state;
+            }, workers));
+        }
+        return splitToIndexedThreads(cnt, source, (index, sublist) -> {
+            A state = newState.get();
+            functionOnThread.accept(state, index * (source.size() / cnt), sublist);
+            return state;
+        }, functionToMerge);
+    }
+
+    /**
+     * Adds part of list, which starts at given position, to state of thread.
+     */
+    private interface PartConsumer<A, R> {
+        void accept(A state, int start, List<? extends R> part);
+    }
+
+    /**
+     * Chunks of list of given size, which are taken by workers.
+     */
+    private static class Chunks<T> {
+        private final int size;
+        private final int workers;
+        private final List<T> results = new ArrayList<>();
+        private int position = 0;
+
+        Chunks(int size, int workers) {
+            this.size = size;
+            this.workers = workers;
+        }
+
+        /**
+         * Takes the next chunk of at most <tt>wanted</tt> elements.
+         *
+         * @return index, start and end of chunk or <tt>null</tt>, if there are no more elements.
+         */
+        synchronized int[] claim(int wanted) {
+            if (position == size) {
+                return null;
+            }
+            int length = Math.max(1, Math.min(wanted, (size - position) / (2 * workers)));
+            int[] chunk = {results.size(), position, Math.min(size, position + length)};
+            position = chunk[2];
+            results.add(null);
+            return chunk;
+        }
+
+        synchronized void complete(int index, T result) {
+            results.set(index, result);
+        }
+
+        synchronized List<T> results() {
+            return results;
+        }
+    }
+
     /**
      * Concatenate string values of <tt>list</tt> elements.
      *
@@ -86,6 +341,9 @@ public class IterativeParallelism implements ListIP {
 
     /**
      * Returns elements of <tt>list</tt>, on which <tt>predicate</tt> returns <tt>true</tt>.
+     * Threads mark matching elements of their parts, then every thread copies its matches
+     * into one array of exact size at offset, which is the number of matches in earlier parts.
+     * Returned list is backed by this array, so its size can't be changed.
      *
      * @param i maximum number of threads, which we have to use.
      * @param list list of elements to apply predicate.
@@ -97,23 +355,58 @@ public class IterativeParallelism implements ListIP {
     @Override
     public <T> List<T> filter(int i, List<? extends T> list, Predicate<? super T> predicate)
             throws InterruptedException {
-        return splitToThreads(i, list,
-                (laterList) -> {
-                    List<T> result = new ArrayList<>();
-                    for (T element : laterList) {
-                        if (predicate.test(element)) {
-                            result.add(element);
-                        }
-                    }
-                    return result;
-                },
-                (results) -> {
-                    List<T> result = new ArrayList<>();
-                    for (List<T> element : results) {
-                        result.addAll(element);
-                    }
-                    return result;
-                });
+        List<Matches<T>> parts = splitToThreads(i, list, (laterList) -> new Matches<T>(laterList, predicate),
+                (results) -> results);
+
+        int[] offsets = new int[parts.size() + 1];
+        List<Integer> indices = new ArrayList<>();
+        for (int j = 0; j < parts.size(); j++) {
+            offsets[j + 1] = offsets[j] + parts.get(j).count;
+            indices.add(j);
+        }
+        @SuppressWarnings("unchecked")
+        T[] result = (T[]) new Object[offsets[parts.size()]];
+        Function<Integer, Void> copy = index -> {
+            parts.get(index).copyTo(result, offsets[index]);
+            return null;
+        };
+
+        if (parts.size() == 1 || result.length < PARALLEL_COPY_THRESHOLD) {
+            indices.forEach(copy::apply);
+        } else {
+            runner().map(copy, indices);
+        }
+        return Arrays.asList(result);
+    }
+
+    /**
+     * Elements of part of list, on which predicate returns <tt>true</tt>, as bit mask over the part.
+     */
+    private static class Matches<T> {
+        private final List<? extends T> elements;
+        private final long[] marks;
+        private int count = 0;
+
+        Matches(List<? extends T> elements, Predicate<? super T> predicate) {
+            this.elements = elements;
+            this.marks = new long[(elements.size() + 63) >>> 6];
+            int index = 0;
+            for (T element : elements) {
+                if (predicate.test(element)) {
+                    marks[index >>> 6] |= 1L << index;
+                    count++;
+                }
+                index++;
+            }
+        }
+
+        void copyTo(T[] dest, int offset) {
+            for (int word = 0; word < marks.length; word++) {
+                for (long bits = marks[word]; bits != 0; bits &= bits - 1) {
+                    dest[offset++] = elements.get((word << 6) + Long.numberOfTrailingZeros(bits));
+                }
+            }
+        }
     }
 
     /**
@@ -209,6 +502,7 @@ public class IterativeParallelism implements ListIP {
 
     /**
      * Return <tt>true</tt>, if all elements returns <tt>true</tt> on <tt>predicate</tt>.
+     * Every thread stops as soon as some thread finds element, which returns <tt>false</tt>.
      *
      * @param i maximum number of threads, which we have to use.
      * @param list list, on which element predicate should be applied.
@@ -222,13 +516,19 @@ public class IterativeParallelism implements ListIP {
     @Override
     public <T> boolean all(int i, List<? extends T> list, Predicate<? super T> predicate)
             throws InterruptedException {
+        AtomicBoolean decided = new AtomicBoolean(false);
         return splitToThreads(i, list,
                 (laterList) -> {
-                    boolean result = true;
                     for (T element : laterList) {
-                        result &= predicate.test(element);
+                        if (decided.get()) {
+                            break;
+                        }
+                        if (!predicate.test(element)) {
+                            decided.set(true);
+                            return false;
+                        }
                     }
-                    return result;
+                    return true;
                 },
                 (results) -> {
                     boolean result = true;
@@ -241,6 +541,7 @@ public class IterativeParallelism implements ListIP {
 
     /**
      * Return <tt>true</tt>, if one or more elements returns <tt>true</tt> on <tt>predicate</tt>.
+     * Every thread stops as soon as some thread finds element, which returns <tt>true</tt>.
      *
      * @param i maximum number of threads, which we have to use.
      * @param list list, on which element predicate should be applied.
@@ -256,7 +557,521 @@ public class IterativeParallelism implements ListIP {
             throws InterruptedException {
         return !all(i, list, predicate.negate());
     }
-}
 
+    /**
+     * Returns the first element of <tt>list</tt>, on which <tt>predicate</tt> returns <tt>true</tt>.
+     * Thread stops as soon as it finds such element or some thread with earlier part of list finds one.
+     *
+     * @param i maximum number of threads, which we have to use.
+     * @param list list, where we should find element.
+     * @param predicate predicate to apply.
+     * @param <T> type of list elements.
+     * @return the first element, on which predicate returns true, or empty optional, if there is no such element.
+     * @throws InterruptedException if something is wrong with threads.
+     * @throws NullPointerException if found element is <tt>null</tt>.
+     *
+     * @see #findAny findAny
+     */
+    public <T> Optional<T> findFirst(int i, List<? extends T> list, Predicate<? super T> predicate)
+            throws InterruptedException {
+        AtomicInteger firstFound = new AtomicInteger(Integer.MAX_VALUE);
+        return splitToIndexedThreads(i, list,
+                (index, laterList) -> {
+                    for (T element : laterList) {
+                        if (firstFound.get() < index) {
+                            break;
+                        }
+                        if (predicate.test(element)) {
+                            firstFound.accumulateAndGet(index, Math::min);
+                            return Optional.of(element);
+                        }
+                    }
+                    return Optional.<T>empty();
+                },
+                (results) -> {
+                    for (Optional<T> element : results) {
+                        if (element.isPresent()) {
+                            return element;
+                        }
+                    }
+                    return Optional.empty();
+                });
+    }
 
+    /**
+     * Returns some element of <tt>list</tt>, on which <tt>predicate</tt> returns <tt>true</tt>.
+     * Every thread stops as soon as some thread finds such element.
+     *
+     * @param i maximum number of threads, which we have to use.
+     * @param list list, where we should find element.
+     * @param predicate predicate to apply.
+     * @param <T> type of list elements.
+     * @return element, on which predicate returns true, or empty optional, if there is no such element.
+     * @throws InterruptedException if something is wrong with threads.
+     * @throws NullPointerException if found element is <tt>null</tt>.
+     *
+     * @see #findFirst findFirst
+     */
+    public <T> Optional<T> findAny(int i, List<? extends T> list, Predicate<? super T> predicate)
+            throws InterruptedException {
+        AtomicBoolean decided = new AtomicBoolean(false);
+        return splitToThreads(i, list,
+                (laterList) -> {
+                    for (T element : laterList) {
+                        if (decided.get()) {
+                            break;
+                        }
+                        if (predicate.test(element)) {
+                            decided.set(true);
+                            return Optional.of(element);
+                        }
+                    }
+                    return Optional.<T>empty();
+                },
+                (results) -> {
+                    for (Optional<T> element : results) {
+                        if (element.isPresent()) {
+                            return element;
+                        }
+                    }
+                    return Optional.empty();
+                });
+    }
 
+    /**
+     * Returns elements of <tt>list</tt>, sorted with <tt>comparator</tt>. Sort is stable.
+     * Every thread sorts its part of list, then sorted parts are merged pairwise, every round of merges
+     * is split into about <tt>i</tt> independent pieces.
+     * Returned list is backed by the array of merged elements, so its size can't be changed.
+     *
+     * @param i maximum number of threads, which we have to use.
+     * @param list list to sort.
+     * @param comparator comparator for comparing elements of list.
+     * @param <T> type of list elements.
+     * @return sorted list of elements.
+     * @throws InterruptedException if something is wrong with threads.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> sort(int i, List<? extends T> list, Comparator<? super T> comparator)
+            throws InterruptedException {
+        T[] data = (T[]) toRandomAccess(list).toArray();
+        int cnt = Math.max(1, Math.min(i, data.length));
+        if (cnt == 1) {
+            Arrays.sort(data, comparator);
+            return Arrays.asList(data);
+        }
+
+        int[] parts = new int[cnt + 1];
+        List<Integer> indices = new ArrayList<>();
+        for (int j = 0; j < cnt; j++) {
+            parts[j] = j * (data.length / cnt);
+            indices.add(j);
+        }
+        parts[cnt] = data.length;
+        runner().map(index -> {
+            Arrays.sort(data, parts[index], parts[index + 1], comparator);
+            return null;
+        }, indices);
+
+        int[] bounds = parts;
+        T[] source = data;
+        T[] target = (T[]) new Object[data.length];
+        while (bounds.length > 2) {
+            int runs = bounds.length - 1;
+            int[] merged = new int[(runs + 1) / 2 + 1];
+            List<int[]> pieces = new ArrayList<>();
+            for (int j = 0; j < runs; j += 2) {
+                merged[j / 2] = bounds[j];
+                if (j + 1 == runs) {
+                    pieces.add(new int[]{bounds[j], bounds[j + 1], bounds[j + 1], bounds[j + 1], bounds[j]});
+                } else {
+                    splitMerge(source, bounds[j], bounds[j + 1], bounds[j + 2], (cnt + runs / 2 - 1) / (runs / 2),
+                            comparator, pieces);
+                }
+            }
+            merged[merged.length - 1] = data.length;
+
+            T[] from = source;
+            T[] to = target;
+            runner().map(piece -> {
+                merge(from, piece[0], piece[1], piece[2], piece[3], to, piece[4], comparator);
+                return null;
+            }, pieces);
+            target = source;
+            source = to;
+            bounds = merged;
+        }
+        return Arrays.asList(source);
+    }
+
+    /**
+     * Splits merge of sorted <tt>data[low, middle)</tt> and <tt>data[middle, high)</tt> into <tt>parts</tt>
+     * independent merges of pieces <tt>{leftFrom, leftTo, rightFrom, rightTo, destination}</tt>.
+     * The longer run is cut into equal pieces, the shorter one is cut by binary search,
+     * so that equal elements of left run stay before equal elements of right run.
+     */
+    private static <T> void splitMerge(T[] data, int low, int middle, int high, int parts,
+                                       Comparator<? super T> comparator, List<int[]> pieces) {
+        int[] left = new int[parts + 1];
+        int[] right = new int[parts + 1];
+        left[parts] = middle;
+        right[parts] = high;
+        for (int k = 0; k < parts; k++) {
+            if (middle - low >= high - middle) {
+                left[k] = low + (int) ((long) (middle - low) * k / parts);
+                right[k] = (k == 0) ? middle : bound(data, middle, high, data[left[k]], comparator, false);
+            } else {
+                right[k] = middle + (int) ((long) (high - middle) * k / parts);
+                left[k] = (k == 0) ? low : bound(data, low, middle, data[right[k]], comparator, true);
+            }
+        }
+        for (int k = 0; k < parts; k++) {
+            pieces.add(new int[]{left[k], left[k + 1], right[k], right[k + 1], left[k] + right[k] - middle});
+        }
+    }
+
+    /**
+     * Returns index of the first element of sorted <tt>data[from, to)</tt>, which is greater than
+     * (if <tt>upper</tt>) or not less than (otherwise) <tt>key</tt>.
+     */
+    private static <T> int bound(T[] data, int from, int to, T key, Comparator<? super T> comparator, boolean upper) {
+        while (from < to) {
+            int middle = (from + to) >>> 1;
+            int compare = comparator.compare(data[middle], key);
+            if (compare < 0 || (upper && compare == 0)) {
+                from = middle + 1;
+            } else {
+                to = middle;
+            }
+        }
+        return from;
+    }
+
+    private static <T> void merge(T[] source, int leftFrom, int leftTo, int rightFrom, int rightTo,
+                                  T[] target, int position, Comparator<? super T> comparator) {
+        while (leftFrom < leftTo && rightFrom < rightTo) {
+            if (comparator.compare(source[rightFrom], source[leftFrom]) < 0) {
+                target[position++] = source[rightFrom++];
+            } else {
+                target[position++] = source[leftFrom++];
+            }
+        }
+        System.arraycopy(source, leftFrom, target, position, leftTo - leftFrom);
+        position += leftTo - leftFrom;
+        System.arraycopy(source, rightFrom, target, position, rightTo - rightFrom);
+    }
+
+    /**
+     * Returns <tt>k</tt> maximum elements of <tt>list</tt>, using <tt>comparator</tt>, in descending order.
+     * Equal elements are taken and returned in order of list.
+     * Every thread keeps one heap of <tt>k</tt> maximum elements of all its parts, then heaps are merged,
+     * so it takes O(n log k / i) time and O(k i) memory, in adaptive mode too.
+     *
+     * @param i maximum number of threads, which we have to use.
+     * @param list list, where we should find maximums.
+     * @param k number of elements to find.
+     * @param comparator comparator for comparing elements of list.
+     * @param <T> type of list elements.
+     * @return list of <tt>min(k, list.size())</tt> maximum elements.
+     * @throws InterruptedException if something is wrong with threads.
+     * @throws IllegalArgumentException if <tt>k</tt> is negative.
+     *
+     * @see #maximum maximum
+     */
+    public <T> List<T> topK(int i, List<? extends T> list, int k, Comparator<? super T> comparator)
+            throws InterruptedException {
+        if (k < 0) {
+            throw new IllegalArgumentException("Negative k: " + k);
+        }
+        int count = Math.min(k, list.size());
+        if (count == 0) {
+            return new ArrayList<>();
+        }
+        Comparator<Ranked<T>> order = (a, b) -> {
+            int compare = comparator.compare(a.value, b.value);
+            return (compare != 0) ? compare : Long.compare(b.position, a.position);
+        };
+        return accumulateInThreads(i, list,
+                () -> new PriorityQueue<>(order),
+                (heap, start, laterList) -> {
+                    long position = start;
+                    for (T element : laterList) {
+                        if (heap.size() < count) {
+                            heap.add(new Ranked<>(element, position));
+                        } else if (comparator.compare(element, heap.peek().value) > 0) {
+                            heap.poll();
+                            heap.add(new Ranked<>(element, position));
+                        }
+                        position++;
+                    }
+                },
+                (results) -> {
+                    PriorityQueue<Ranked<T>> heap = new PriorityQueue<>(count + 1, order);
+                    for (PriorityQueue<Ranked<T>> part : results) {
+                        for (Ranked<T> element : part) {
+                            heap.add(element);
+                            if (heap.size() > count) {
+                                heap.poll();
+                            }
+                        }
+                    }
+                    @SuppressWarnings("unchecked")
+                    T[] result = (T[]) new Object[heap.size()];
+                    for (int j = result.length - 1; j >= 0; j--) {
+                        result[j] = heap.poll().value;
+                    }
+                    return new ArrayList<>(Arrays.asList(result));
+                });
+    }
+
+    /**
+     * Element of list with its position in list.
+     */
+    private static class Ranked<T> {
+        private final T value;
+        private final long position;
+
+        Ranked(T value, long position) {
+            this.value = value;
+            this.position = position;
+        }
+    }
+
+    /**
+     * Returns element, which would have index <tt>n</tt> in <tt>list</tt> sorted with <tt>comparator</tt>.
+     * Uses quickselect: threads count elements, which are less than and equal to random pivot,
+     * then elements of the side, which contains the answer, are selected with {@link #filter},
+     * until few elements remain. It takes O(n / i) expected time per element.
+     *
+     * @param i maximum number of threads, which we have to use.
+     * @param list list, where we should find element.
+     * @param n index of element in sorted list.
+     * @param comparator comparator for comparing elements of list.
+     * @param <T> type of list elements.
+     * @return element with index <tt>n</tt> in sorted list.
+     * @throws InterruptedException if something is wrong with threads.
+     * @throws IndexOutOfBoundsException if <tt>n</tt> is out of range.
+     */
+    public <T> T nthElement(int i, List<? extends T> list, int n, Comparator<? super T> comparator)
+            throws InterruptedException {
+        if (n < 0 || n >= list.size()) {
+            throw new IndexOutOfBoundsException("Index: " + n + ", size: " + list.size());
+        }
+        List<? extends T> current = toRandomAccess(list);
+        while (current.size() > SEQUENTIAL_SELECT_THRESHOLD) {
+            T pivot = current.get(ThreadLocalRandom.current().nextInt(current.size()));
+            long counts = mapReduce(i, current, element -> {
+                int compare = comparator.compare(element, pivot);
+                return (compare < 0) ? 1L << 32 : (compare == 0) ? 1L : 0L;
+            }, Monoid.of(0L, Long::sum));
+            int less = (int) (counts >>> 32);
+            int equal = (int) counts;
+            if (n < less) {
+                current = filter(i, current, element -> comparator.compare(element, pivot) < 0);
+            } else if (n < less + equal) {
+                return pivot;
+            } else {
+                n -= less + equal;
+                current = filter(i, current, element -> comparator.compare(element, pivot) > 0);
+            }
+        }
+        @SuppressWarnings("unchecked")
+        T[] rest = (T[]) current.toArray();
+        Arrays.sort(rest, comparator);
+        return rest[n];
+    }
+
+    /**
+     * Groups elements of <tt>list</tt> by keys, which <tt>classifier</tt> returns, and collects
+     * elements of every group with <tt>downstream</tt>, like {@link Collectors#groupingBy(Function, Collector)}.
+     * Every thread collects its part of list into its own hash map, then maps are merged pairwise
+     * in parallel, containers of earlier parts of list are always combined with later ones from the left.
+     *
+     * @param i maximum number of threads, which we have to use.
+     * @param list list of elements to group.
+     * @param classifier function, which returns key of element.
+     * @param downstream collector for elements of every group.
+     * @param <T> type of list elements.
+     * @param <K> type of keys.
+     * @param <A> type of intermediate containers of collector.
+     * @param <D> type of results of collector.
+     * @return map from keys to results of collector on their groups.
+     * @throws InterruptedException if something is wrong with threads.
+     *
+     * @see #histogram(int, List, Function) histogram
+     */
+    @SuppressWarnings("unchecked")
+    public <T, K, A, D> Map<K, D> groupingBy(int i, List<? extends T> list, Function<? super T, ? extends K> classifier,
+                                             Collector<? super T, A, D> downstream)
+            throws InterruptedException {
+        List<Map<K, A>> parts = splitToThreads(i, list,
+                (laterList) -> {
+                    Map<K, A> groups = new HashMap<>();
+                    for (T element : laterList) {
+                        A container = groups.computeIfAbsent(classifier.apply(element), key -> downstream.supplier().get());
+                        downstream.accumulator().accept(container, element);
+                    }
+                    return groups;
+                },
+                (results) -> results);
+
+        BinaryOperator<A> combiner = downstream.combiner();
+        Map<K, A> groups = mergeInParallel(parts, (left, right) -> {
+            if (left.size() >= right.size()) {
+                right.forEach((key, value) -> left.merge(key, value, combiner));
+                return left;
+            }
+            left.forEach((key, value) -> right.merge(key, value, (old, earlier) -> combiner.apply(earlier, old)));
+            return right;
+        });
+
+        if (!downstream.characteristics().contains(Collector.Characteristics.IDENTITY_FINISH)) {
+            Function<A, D> finisher = downstream.finisher();
+            ((Map<K, Object>) groups).replaceAll((key, value) -> finisher.apply((A) value));
+        }
+        return (Map<K, D>) groups;
+    }
+
+    /**
+     * Counts elements of <tt>list</tt> with every key, which <tt>classifier</tt> returns.
+     *
+     * @param i maximum number of threads, which we have to use.
+     * @param list list of elements to count.
+     * @param classifier function, which returns key of element.
+     * @param <T> type of list elements.
+     * @param <K> type of keys.
+     * @return map from keys to numbers of elements with them.
+     * @throws InterruptedException if something is wrong with threads.
+     *
+     * @see #groupingBy groupingBy
+     */
+    public <T, K> Map<K, Long> histogram(int i, List<? extends T> list, Function<? super T, ? extends K> classifier)
+            throws InterruptedException {
+        return groupingBy(i, list, classifier, Collectors.counting());
+    }
+
+    /**
+     * Counts elements of <tt>list</tt> with every key from <tt>0</tt> to <tt>domain - 1</tt>, which
+     * <tt>classifier</tt> returns. Every thread counts into its own array, so keys and counts are never boxed,
+     * and in adaptive mode worker counts all its chunks into the same array.
+     *
+     * @param i maximum number of threads, which we have to use.
+     * @param list list of elements to count.
+     * @param classifier function, which returns key of element.
+     * @param domain number of possible keys.
+     * @param <T> type of list elements.
+     * @return array, which contains number of elements with key <tt>j</tt> at index <tt>j</tt>.
+     * @throws InterruptedException if something is wrong with threads.
+     * @throws ArrayIndexOutOfBoundsException if classifier returns key out of range.
+     */
+    public <T> long[] histogram(int i, List<? extends T> list, ToIntFunction<? super T> classifier, int domain)
+            throws InterruptedException {
+        List<long[]> parts = accumulateInThreads(i, list,
+                () -> new long[domain],
+                (counts, start, laterList) -> {
+                    for (T element : laterList) {
+                        counts[classifier.applyAsInt(element)]++;
+                    }
+                },
+                (results) -> results);
+        return mergeInParallel(parts, (left, right) -> {
+            for (int j = 0; j < domain; j++) {
+                left[j] += right[j];
+            }
+            return left;
+        });
+    }
+
+    /**
+     * Combines <tt>parts</tt> in order with <tt>combiner</tt> as a balanced tree:
+     * every round combines neighbouring pairs in parallel.
+     */
+    private <A> A mergeInParallel(List<A> parts, BinaryOperator<A> combiner) throws InterruptedException {
+        while (parts.size() > 1) {
+            List<A> current = parts;
+            List<Integer> pairs = new ArrayList<>();
+            for (int j = 0; j < current.size(); j += 2) {
+                pairs.add(j);
+            }
+            Function<Integer, A> merge = j -> (j + 1 < current.size())
+                    ? combiner.apply(current.get(j), current.get(j + 1))
+                    : current.get(j);
+            if (pairs.size() == 1) {
+                parts = new ArrayList<>();
+                parts.add(merge.apply(0));
+            } else {
+                parts = runner().map(merge, pairs);
+            }
+        }
+        return parts.get(0);
+    }
+
+    /**
+     * Returns lazy pipeline over elements of <tt>list</tt>. Stages, which are added to it,
+     * are applied to every element in one loop per thread, when terminal operation is called.
+     *
+     * @param i maximum number of threads, which we have to use.
+     * @param list list of elements.
+     * @param <T> type of list elements.
+     * @return pipeline without stages.
+     */
+    public <T> Pipeline<T, T> pipeline(int i, List<? extends T> list) {
+        return new Pipeline<T, T>(this, i, list, downstream -> downstream::accept);
+    }
+
+    /**
+     * Folds elements of <tt>list</tt> with <tt>operator</tt>, starting from <tt>identity</tt>.
+     * Every thread folds its part of list, then results of parts are folded in order of list,
+     * so no intermediate lists are made.
+     *
+     * @param i maximum number of threads, which we have to use.
+     * @param list list to fold.
+     * @param identity neutral element of operator.
+     * @param operator associative operation.
+     * @param <T> type of list elements.
+     * @return result of folding, <tt>identity</tt> for empty list.
+     * @throws InterruptedException if something is wrong with threads.
+     *
+     * @see #mapReduce mapReduce
+     */
+    public <T> T reduce(int i, List<? extends T> list, T identity, BinaryOperator<T> operator)
+            throws InterruptedException {
+        return mapReduce(i, list, Function.<T>identity(), Monoid.of(identity, operator));
+    }
+
+    /**
+     * Applies <tt>function</tt> to elements of <tt>list</tt> and folds results with <tt>monoid</tt>.
+     * Every thread folds its part of list, then results of parts are folded in order of list,
+     * so no intermediate lists are made.
+     *
+     * @param i maximum number of threads, which we have to use.
+     * @param list list to fold.
+     * @param function function to apply before folding.
+     * @param monoid operation to fold with.
+     * @param <T> type of list elements.
+     * @param <R> type of result.
+     * @return result of folding, <tt>monoid.identity()</tt> for empty list.
+     * @throws InterruptedException if something is wrong with threads.
+     *
+     * @see #reduce reduce
+     */
+    public <T, R> R mapReduce(int i, List<? extends T> list, Function<? super T, ? extends R> function, Monoid<R> monoid)
+            throws InterruptedException {
+        BinaryOperator<R> operator = monoid.operator();
+        return splitToThreads(i, list,
+                (laterList) -> {
+                    R result = monoid.identity();
+                    for (T element : laterList) {
+                        result = operator.apply(result, function.apply(element));
+                    }
+                    return result;
+                },
+                (results) -> {
+                    R result = monoid.identity();
+                    for (R element : results) {
+                        result = operator.apply(result, element);
+                    }
+                    return result;
+                });
+    }
+}
@@ -0,0 +1,49 @@
+package ru.ifmo.ctddev.koroleva.concurrent;
+
+import java.util.function.BinaryOperator;
+
+/**
+ * Associative operation with neutral element. Parallel reductions combine partial results
+ * of parts of list in order of list, so the operation doesn't have to be commutative.
+ *
+ * @param <T> type of values.
+ *
+ * @see IterativeParallelism#mapReduce
+ */
+public interface Monoid<T> {
+    /**
+     * Returns neutral element: <tt>operator().apply(identity(), x)</tt> equals <tt>x</tt> for every <tt>x</tt>.
+     *
+     * @return neutral element.
+     */
+    T identity();
+
+    /**
+     * Returns associative operation of monoid.
+     *
+     * @return operation.
+     */
+    BinaryOperator<T> operator();
+
+    /**
+     * Makes monoid from neutral element and operation.
+     *
+     * @param identity neutral element.
+     * @param operator associative operation.
+     * @param <T> type of values.
+     * @return monoid.
+     */
+    static <T> Monoid<T> of(T identity, BinaryOperator<T> operator) {
+        return new Monoid<T>() {
+            @Override
+            public T identity() {
+                return identity;
+            }
+
+            @Override
+            public BinaryOperator<T> operator() {
+                return operator;
+            }
+        };
+    }
+}
@@ -0,0 +1,241 @@
+package ru.ifmo.ctddev.koroleva.concurrent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Lazy chain of <tt>map</tt> and <tt>filter</tt> stages over a list, which is evaluated by {@link IterativeParallelism}.
+ * Adding stage doesn't do anything with elements. Terminal operation splits list once,
+ * every thread passes elements of its part through all stages in one loop and keeps only
+ * its partial result, so there are no intermediate lists between stages.
+ *
+ * Pipeline may be evaluated more than once, every terminal operation evaluates it again.
+ *
+ * @param <S> type of elements of source list.
+ * @param <T> type of elements after all stages.
+ *
+ * @see IterativeParallelism#pipeline
+ */
+public class Pipeline<S, T> {
+    private final IterativeParallelism parallelism;
+    private final int threads;
+    private final List<? extends S> source;
+    private final Function<Consumer<? super T>, Consumer<S>> stages;
+
+    Pipeline(IterativeParallelism parallelism, int threads, List<? extends S> source,
+             Function<Consumer<? super T>, Consumer<S>> stages) {
+        this.parallelism = parallelism;
+        this.threads = threads;
+        this.source = source;
+        this.stages = stages;
+    }
+
+    private static class Holder<V> {
+        private V value;
+        private boolean present;
+
+        Holder(V value, boolean present) {
+            this.value = value;
+            this.present = present;
+        }
+    }
+
+    /**
+     * Adds stage, which applies <tt>function</tt> to elements.
+     *
+     * @param function function to apply.
+     * @param <U> type of results of function.
+     * @return new pipeline with this stage at the end.
+     */
+    public <U> Pipeline<S, U> map(Function<? super T, ? extends U> function) {
+        return new Pipeline<S, U>(parallelism, threads, source,
+                downstream -> stages.apply(element -> downstream.accept(function.apply(element))));
+    }
+
+    /**
+     * Adds stage, which passes only elements, on which <tt>predicate</tt> returns <tt>true</tt>.
+     *
+     * @param predicate predicate for analysing elements.
+     * @return new pipeline with this stage at the end.
+     */
+    public Pipeline<S, T> filter(Predicate<? super T> predicate) {
+        return new Pipeline<S, T>(parallelism, threads, source,
+                downstream -> stages.apply(element -> {
+                    if (predicate.test(element)) {
+                        downstream.accept(element);
+                    }
+                }));
+    }
+
+    /**
+     * Passes elements of every part of list through all stages into its own container and
+     * merges containers of parts in order of list. Thread stops, when <tt>stop</tt> returns <tt>true</tt>.
+     */
+    private <A> A collect(Supplier<A> supplier, BiConsumer<A, ? super T> accumulator,
+                          BinaryOperator<A> combiner, BooleanSupplier stop) throws InterruptedException {
+        return parallelism.splitToThreads(threads, source,
+                (laterList) -> {
+                    A container = supplier.get();
+                    Consumer<S> sink = stages.apply(element -> accumulator.accept(container, element));
+                    for (S element : laterList) {
+                        if (stop.getAsBoolean()) {
+                            break;
+                        }
+                        sink.accept(element);
+                    }
+                    return container;
+                },
+                (results) -> {
+                    A result = results.get(0);
+                    for (int j = 1; j < results.size(); j++) {
+                        result = combiner.apply(result, results.get(j));
+                    }
+                    return result;
+                });
+    }
+
+    private <A> A collect(Supplier<A> supplier, BiConsumer<A, ? super T> accumulator, BinaryOperator<A> combiner)
+            throws InterruptedException {
+        return collect(supplier, accumulator, combiner, () -> false);
+    }
+
+    /**
+     * Returns elements after all stages.
+     *
+     * @return list of elements in order of source list.
+     * @throws InterruptedException if something is wrong with threads.
+     */
+    public List<T> toList() throws InterruptedException {
+        return collect(ArrayList<T>::new, List::add, (a, b) -> {
+            a.addAll(b);
+            return a;
+        });
+    }
+
+    /**
+     * Folds elements after all stages with <tt>operator</tt>, starting from <tt>identity</tt>.
+     *
+     * @param identity neutral element of operator.
+     * @param operator associative operation.
+     * @return result of folding, <tt>identity</tt>, if there are no elements.
+     * @throws InterruptedException if something is wrong with threads.
+     *
+     * @see IterativeParallelism#reduce
+     */
+    public T reduce(T identity, BinaryOperator<T> operator) throws InterruptedException {
+        return collect(() -> new Holder<>(identity, true),
+                (holder, element) -> holder.value = operator.apply(holder.value, element),
+                (a, b) -> {
+                    a.value = operator.apply(a.value, b.value);
+                    return a;
+                }).value;
+    }
+
+    /**
+     * Applies <tt>function</tt> to elements after all stages and folds results with <tt>monoid</tt>.
+     *
+     * @param function function to apply before folding.
+     * @param monoid operation to fold with.
+     * @param <R> type of result.
+     * @return result of folding, <tt>monoid.identity()</tt>, if there are no elements.
+     * @throws InterruptedException if something is wrong with threads.
+     *
+     * @see IterativeParallelism#mapReduce
+     */
+    public <R> R mapReduce(Function<? super T, ? extends R> function, Monoid<R> monoid) throws InterruptedException {
+        return this.<R>map(function).reduce(monoid.identity(), monoid.operator());
+    }
+
+    /**
+     * Returns number of elements after all stages.
+     *
+     * @return number of elements.
+     * @throws InterruptedException if something is wrong with threads.
+     */
+    public long count() throws InterruptedException {
+        return collect(() -> new long[1], (a, element) -> a[0]++, (a, b) -> {
+            a[0] += b[0];
+            return a;
+        })[0];
+    }
+
+    /**
+     * Returns the maximum element after all stages, using <tt>comparator</tt>.
+     *
+     * @param comparator comparator for comparing elements.
+     * @return the first of maximum elements or empty optional, if there are no elements.
+     * @throws InterruptedException if something is wrong with threads.
+     * @throws NullPointerException if maximum element is <tt>null</tt>.
+     */
+    public Optional<T> maximum(Comparator<? super T> comparator) throws InterruptedException {
+        BiConsumer<Holder<T>, T> accumulator = (holder, element) -> {
+            if (!holder.present || comparator.compare(holder.value, element) < 0) {
+                holder.value = element;
+                holder.present = true;
+            }
+        };
+        Holder<T> result = collect(() -> new Holder<T>(null, false), accumulator, (a, b) -> {
+            if (b.present) {
+                accumulator.accept(a, b.value);
+            }
+            return a;
+        });
+        return result.present ? Optional.of(result.value) : Optional.empty();
+    }
+
+    /**
+     * Returns the minimum element after all stages, using <tt>comparator</tt>.
+     *
+     * @param comparator comparator for comparing elements.
+     * @return the first of minimum elements or empty optional, if there are no elements.
+     * @throws InterruptedException if something is wrong with threads.
+     * @throws NullPointerException if minimum element is <tt>null</tt>.
+     */
+    public Optional<T> minimum(Comparator<? super T> comparator) throws InterruptedException {
+        return maximum(Collections.reverseOrder(comparator));
+    }
+
+    /**
+     * Return <tt>true</tt>, if one or more elements after all stages return <tt>true</tt> on <tt>predicate</tt>.
+     * Every thread stops as soon as some thread finds such element.
+     *
+     * @param predicate predicate to apply.
+     * @return true, if there is such element, and false otherwise.
+     * @throws InterruptedException if something is wrong with threads.
+     */
+    public boolean any(Predicate<? super T> predicate) throws InterruptedException {
+        AtomicBoolean decided = new AtomicBoolean(false);
+        return collect(() -> new boolean[1], (a, element) -> {
+            if (predicate.test(element)) {
+                a[0] = true;
+                decided.set(true);
+            }
+        }, (a, b) -> {
+            a[0] |= b[0];
+            return a;
+        }, decided::get)[0];
+    }
+
+    /**
+     * Return <tt>true</tt>, if all elements after all stages return <tt>true</tt> on <tt>predicate</tt>.
+     * Every thread stops as soon as some thread finds element, which returns <tt>false</tt>.
+     *
+     * @param predicate predicate to apply.
+     * @return true, if all elements return true on predicate, and false otherwise.
+     * @throws InterruptedException if something is wrong with threads.
+     */
+    public boolean all(Predicate<? super T> predicate) throws InterruptedException {
+        return !any(predicate.negate());
+    }
+}
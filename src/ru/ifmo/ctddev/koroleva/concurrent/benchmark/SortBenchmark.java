@@ -0,0 +1,75 @@
+package ru.ifmo.ctddev.koroleva.concurrent.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.ifmo.ctddev.koroleva.concurrent.IterativeParallelism;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link IterativeParallelism#sort} with sequential {@link List#sort} and
+ * {@link Arrays#parallelSort(Object[], Comparator)} on random <tt>Integer</tt> lists.
+ * All of them are stable and sort a new copy of list. Threads default to the number of processors.
+ * Parallel speedup has to be measured on a multi-core machine: with one core all three take about the same time.
+ *
+ * Usage: <tt>java org.openjdk.jmh.Main SortBenchmark [-p size=...] [-p threads=...]</tt>.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class SortBenchmark {
+    private static final Comparator<Integer> COMPARATOR = Integer::compare;
+
+    @Param({"100000", "10000000"})
+    public int size;
+
+    @Param({"0"})
+    public int threads;
+
+    private List<Integer> list;
+    private IterativeParallelism parallelism;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(2015);
+        list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(random.nextInt());
+        }
+        if (threads <= 0) {
+            threads = Runtime.getRuntime().availableProcessors();
+        }
+        parallelism = new IterativeParallelism();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        IterativeParallelism.closeDefaultMapper();
+    }
+
+    @Benchmark
+    public List<Integer> listSort() {
+        List<Integer> sorted = new ArrayList<>(list);
+        sorted.sort(COMPARATOR);
+        return sorted;
+    }
+
+    @Benchmark
+    public Integer[] parallelSort() {
+        Integer[] array = list.toArray(new Integer[size]);
+        Arrays.parallelSort(array, COMPARATOR);
+        return array;
+    }
+
+    @Benchmark
+    public List<Integer> iterativeParallelismSort() throws InterruptedException {
+        return parallelism.sort(threads, list, COMPARATOR);
+    }
+}
@@ -0,0 +1,376 @@
+package ru.ifmo.ctddev.koroleva.concurrent.test;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.junit.runners.MethodSorters;
+import ru.ifmo.ctddev.koroleva.concurrent.IterativeParallelism;
+import ru.ifmo.ctddev.koroleva.concurrent.Monoid;
+import ru.ifmo.ctddev.koroleva.concurrent.Pipeline;
+import ru.ifmo.ctddev.koroleva.mapper.ParallelMapperImpl;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Tests of {@link IterativeParallelism}, which are not covered by the course tests.
+ * Every result is compared with a sequential computation.
+ *
+ * Usage: <tt>java org.junit.runner.JUnitCore ru.ifmo.ctddev.koroleva.concurrent.test.IterativeParallelismTest</tt>.
+ */
+@RunWith(JUnit4.class)
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class IterativeParallelismTest {
+    private static final int[] THREADS = {1, 2, 3, 8};
+
+    static List<Integer> randomList(Random random, int size) {
+        List<Integer> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(random.nextInt(2 * size + 1) - size);
+        }
+        return list;
+    }
+
+    @Test(timeout = 20_000)
+    public void test01_defaultMapper() throws InterruptedException {
+        Random random = new Random(2041);
+        IterativeParallelism parallelism = new IterativeParallelism();
+        for (int attempt = 0; attempt < 2; attempt++) {
+            for (int threads : THREADS) {
+                List<Integer> list = randomList(random, 10_000);
+                Assert.assertEquals(Collections.max(list), parallelism.maximum(threads, list, Integer::compare));
+                try {
+                    parallelism.any(threads, list, e -> {
+                        throw new IllegalStateException();
+                    });
+                    Assert.fail("any should throw");
+                } catch (RuntimeException e) {
+                    Assert.assertTrue(e instanceof IllegalStateException || e.getCause() instanceof IllegalStateException);
+                }
+            }
+            IterativeParallelism.closeDefaultMapper();
+        }
+
+        Thread caller = Thread.currentThread();
+        Assert.assertTrue("single part should run in caller's thread",
+                parallelism.all(1, randomList(random, 100), e -> Thread.currentThread() == caller));
+    }
+
+    @Test
+    public void test02_search() throws InterruptedException {
+        Random random = new Random(2042);
+        IterativeParallelism parallelism = new IterativeParallelism();
+        for (int threads : THREADS) {
+            for (int size : new int[]{0, 1, 10, 10_000}) {
+                List<Integer> list = randomList(random, size);
+                for (int modulo : new int[]{1, 7, 1_000_000}) {
+                    String context = "threads = " + threads + ", size = " + size + ", modulo = " + modulo;
+                    Predicate<Integer> predicate = e -> e % modulo == modulo - 1;
+                    Optional<Integer> first = list.stream().filter(predicate).findFirst();
+                    Assert.assertEquals(context, list.stream().allMatch(predicate), parallelism.all(threads, list, predicate));
+                    Assert.assertEquals(context, list.stream().anyMatch(predicate), parallelism.any(threads, list, predicate));
+                    Assert.assertEquals(context, first, parallelism.findFirst(threads, list, predicate));
+                    Optional<Integer> any = parallelism.findAny(threads, list, predicate);
+                    Assert.assertEquals(context, first.isPresent(), any.isPresent());
+                    Assert.assertTrue(context, !any.isPresent() || predicate.test(any.get()));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void test03_shortCircuit() throws InterruptedException {
+        List<Integer> list = new ArrayList<>(Collections.nCopies(1_000_000, 1));
+        list.set(0, 0);
+        IterativeParallelism parallelism = new IterativeParallelism();
+        for (int threads : THREADS) {
+            AtomicInteger calls = new AtomicInteger();
+            Assert.assertFalse(parallelism.all(threads, list, e -> calls.incrementAndGet() > 0 && e == 1));
+            checkCalls(threads, calls, list.size());
+
+            calls.set(0);
+            Assert.assertEquals(Optional.of(0), parallelism.findFirst(threads, list, e -> calls.incrementAndGet() > 0 && e == 0));
+            checkCalls(threads, calls, list.size());
+        }
+    }
+
+    private static void checkCalls(int threads, AtomicInteger calls, int size) {
+        if (threads == 1) {
+            Assert.assertEquals("single thread should stop at the first match", 1, calls.get());
+        } else {
+            Assert.assertTrue("threads should stop after the first match, calls = " + calls, calls.get() < size);
+        }
+    }
+
+    @Test(timeout = 60_000)
+    public void test04_adaptive() throws InterruptedException {
+        Random random = new Random(2043);
+        ParallelMapperImpl mapper = new ParallelMapperImpl(4);
+        try {
+            List<IterativeParallelism> adaptive = Arrays.asList(new IterativeParallelism(true),
+                    new IterativeParallelism(mapper, true));
+            for (IterativeParallelism parallelism : adaptive) {
+                for (int threads : THREADS) {
+                    for (int size : new int[]{0, 1, 3, 100_000}) {
+                        List<Integer> list = randomList(random, size);
+                        String context = "threads = " + threads + ", size = " + size;
+                        // Later elements are much slower, so equal parts would be unbalanced
+                        Predicate<Integer> slowPredicate = e -> {
+                            int work = (e + size) * 20 / Math.max(1, size);
+                            for (int k = 0; k < work; k++) {
+                                e = e * 31 + k;
+                            }
+                            return e != Integer.MIN_VALUE + 1;
+                        };
+                        Assert.assertEquals(context, list.stream().allMatch(slowPredicate),
+                                parallelism.all(threads, list, slowPredicate));
+                        Assert.assertEquals(context, list.stream().filter(e -> e % 3 == 0).collect(Collectors.toList()),
+                                parallelism.filter(threads, list, e -> e % 3 == 0));
+                        Assert.assertEquals(context, list.stream().map(e -> e * 2L).collect(Collectors.toList()),
+                                parallelism.map(threads, list, e -> e * 2L));
+                        Assert.assertEquals(context, list.stream().map(Object::toString).collect(Collectors.joining()),
+                                parallelism.concat(threads, list));
+                        if (size > 0) {
+                            Assert.assertEquals(context, Collections.max(list), parallelism.maximum(threads, list, Integer::compare));
+                            Assert.assertEquals(context, Collections.min(list), parallelism.minimum(threads, list, Integer::compare));
+                        }
+                        Assert.assertEquals(context, list.stream().filter(e -> e % 5 == 4).findFirst(),
+                                parallelism.findFirst(threads, list, e -> e % 5 == 4));
+                    }
+                }
+            }
+        } finally {
+            mapper.close();
+        }
+    }
+
+    @Test(timeout = 20_000)
+    public void test05_sources() throws InterruptedException {
+        Random random = new Random(2044);
+        List<Integer> list = randomList(random, 200_000);
+        Assert.assertSame("random access list should not be copied", list, IterativeParallelism.toRandomAccess(list));
+
+        LinkedList<Integer> linked = new LinkedList<>(list);
+        TreeSet<Integer> set = new TreeSet<>(list);
+        for (IterativeParallelism parallelism : Arrays.asList(new IterativeParallelism(), new IterativeParallelism(true))) {
+            for (int threads : THREADS) {
+                Assert.assertEquals(Collections.max(list), parallelism.maximum(threads, linked, Integer::compare));
+                Assert.assertEquals(list.stream().map(e -> e + 1).collect(Collectors.toList()),
+                        parallelism.map(threads, linked, e -> e + 1));
+                Assert.assertEquals(set.stream().filter(e -> e % 2 == 0).collect(Collectors.toList()),
+                        parallelism.filter(threads, IterativeParallelism.toRandomAccess(set), e -> e % 2 == 0));
+                Assert.assertEquals(list.stream().filter(e -> e > 0).findFirst(), parallelism.findFirst(threads,
+                        IterativeParallelism.toList(list.stream().spliterator()), e -> e > 0));
+                Assert.assertEquals(set.first(), parallelism.minimum(threads,
+                        IterativeParallelism.toList(set.spliterator()), Integer::compare));
+            }
+        }
+    }
+
+    @Test
+    public void test06_reduce() throws InterruptedException {
+        Random random = new Random(2045);
+        for (IterativeParallelism parallelism : Arrays.asList(new IterativeParallelism(), new IterativeParallelism(true))) {
+            for (int threads : THREADS) {
+                for (int size : new int[]{0, 1, 5, 50_000}) {
+                    List<Integer> list = randomList(random, size);
+                    String context = "threads = " + threads + ", size = " + size;
+                    Assert.assertEquals(context, list.stream().mapToLong(e -> e).sum(),
+                            (long) parallelism.mapReduce(threads, list, Integer::longValue, Monoid.of(0L, Long::sum)));
+                    Assert.assertEquals(context, list.stream().reduce(0, Integer::sum),
+                            parallelism.reduce(threads, list, 0, Integer::sum));
+                    // String concatenation is associative, but not commutative
+                    Assert.assertEquals(context, list.stream().map(e -> e + ",").collect(Collectors.joining()),
+                            parallelism.mapReduce(threads, list, e -> e + ",", Monoid.of("", String::concat)));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void test07_pipeline() throws InterruptedException {
+        Random random = new Random(2046);
+        for (IterativeParallelism parallelism : Arrays.asList(new IterativeParallelism(), new IterativeParallelism(true))) {
+            for (int threads : THREADS) {
+                for (int size : new int[]{0, 1, 5, 50_000}) {
+                    List<Integer> list = randomList(random, size);
+                    String context = "threads = " + threads + ", size = " + size;
+                    AtomicInteger calls = new AtomicInteger();
+                    Pipeline<Integer, Long> pipeline = parallelism.pipeline(threads, list)
+                            .map(e -> {
+                                calls.incrementAndGet();
+                                return e * 3L;
+                            })
+                            .filter(e -> e % 2 == 0)
+                            .map(e -> e + 1);
+                    Assert.assertEquals("stages should run only in terminal operations " + context, 0, calls.get());
+
+                    List<Long> expected = list.stream().map(e -> e * 3L).filter(e -> e % 2 == 0).map(e -> e + 1)
+                            .collect(Collectors.toList());
+                    Assert.assertEquals(context, expected, pipeline.toList());
+                    Assert.assertEquals("every element should pass each stage once " + context, size, calls.get());
+                    Assert.assertEquals(context, expected.size(), pipeline.count());
+                    Assert.assertEquals(context, expected.stream().reduce(0L, Long::sum), pipeline.reduce(0L, Long::sum));
+                    Assert.assertEquals(context, expected.stream().map(Object::toString).collect(Collectors.joining()),
+                            pipeline.mapReduce(Object::toString, Monoid.of("", String::concat)));
+                    Assert.assertEquals(context, expected.stream().max(Long::compare), pipeline.maximum(Long::compare));
+                    Assert.assertEquals(context, expected.stream().min(Long::compare), pipeline.minimum(Long::compare));
+                    Assert.assertEquals(context, expected.stream().anyMatch(e -> e > size), pipeline.any(e -> e > size));
+                    Assert.assertEquals(context, expected.stream().allMatch(e -> e > -size), pipeline.all(e -> e > -size));
+                }
+            }
+        }
+
+        List<Integer> ones = Collections.nCopies(1_000_000, 1);
+        AtomicInteger calls = new AtomicInteger();
+        Assert.assertTrue(new IterativeParallelism().pipeline(1, ones)
+                .map(e -> calls.incrementAndGet())
+                .any(e -> e == 1));
+        Assert.assertEquals("any should stop at the first match", 1, calls.get());
+    }
+
+    @Test
+    public void test08_filter() throws InterruptedException {
+        Random random = new Random(2047);
+        for (IterativeParallelism parallelism : Arrays.asList(new IterativeParallelism(), new IterativeParallelism(true))) {
+            for (int threads : THREADS) {
+                for (int size : new int[]{0, 1, 63, 64, 65, 300_000}) {
+                    List<Integer> list = randomList(random, size);
+                    for (int modulo : new int[]{1, 2, 64, Integer.MAX_VALUE}) {
+                        String context = "threads = " + threads + ", size = " + size + ", modulo = " + modulo;
+                        Predicate<Integer> predicate = e -> e % modulo == 0;
+                        AtomicInteger calls = new AtomicInteger();
+                        List<Integer> filtered = parallelism.filter(threads, list,
+                                e -> calls.incrementAndGet() > 0 && predicate.test(e));
+                        Assert.assertEquals(context, list.stream().filter(predicate).collect(Collectors.toList()), filtered);
+                        Assert.assertEquals("predicate should be called once per element " + context, size, calls.get());
+                    }
+                }
+            }
+        }
+
+        List<Integer> filtered = new IterativeParallelism().filter(2, Arrays.asList(1, 2, 3), e -> e > 1);
+        filtered.set(0, 5);
+        Assert.assertEquals(Arrays.asList(5, 3), filtered);
+        try {
+            filtered.add(4);
+            Assert.fail("filtered list should have fixed size");
+        } catch (UnsupportedOperationException ignored) {
+        }
+    }
+
+    @Test
+    public void test09_sort() throws InterruptedException {
+        Random random = new Random(2048);
+        List<Comparator<Integer>> comparators = Arrays.asList(
+                Integer::compare,
+                Comparator.comparing(e -> e / 100),
+                (a, b) -> 0
+        );
+        for (IterativeParallelism parallelism : Arrays.asList(new IterativeParallelism(), new IterativeParallelism(true))) {
+            for (int threads : new int[]{1, 2, 3, 5, 8}) {
+                for (int size : new int[]{0, 1, 2, 7, 1_000, 100_000}) {
+                    List<Integer> list = randomList(random, size);
+                    for (Comparator<Integer> comparator : comparators) {
+                        // List.sort is stable, so equal elements should keep the same order
+                        List<Integer> expected = new ArrayList<>(list);
+                        expected.sort(comparator);
+                        Assert.assertEquals("threads = " + threads + ", size = " + size,
+                                expected, parallelism.sort(threads, list, comparator));
+                    }
+                }
+            }
+        }
+
+        List<Integer> sorted = new IterativeParallelism().sort(2, Arrays.asList(3, 1, 2), Integer::compare);
+        try {
+            sorted.add(4);
+            Assert.fail("sorted list should have fixed size");
+        } catch (UnsupportedOperationException ignored) {
+        }
+    }
+
+    @Test(timeout = 60_000)
+    public void test10_topK() throws InterruptedException {
+        Random random = new Random(2049);
+        List<Comparator<Integer>> comparators = Arrays.asList(
+                Integer::compare,
+                Comparator.comparing(e -> e / 100),
+                (a, b) -> 0
+        );
+        for (IterativeParallelism parallelism : Arrays.asList(new IterativeParallelism(), new IterativeParallelism(true))) {
+            for (int threads : new int[]{1, 2, 3, 5, 8}) {
+                for (int size : new int[]{0, 1, 2, 7, 1_000, 100_000}) {
+                    List<Integer> list = randomList(random, size);
+                    for (Comparator<Integer> comparator : comparators) {
+                        String context = "threads = " + threads + ", size = " + size;
+                        // Stable sort in descending order keeps equal elements in order of list
+                        List<Integer> expected = new ArrayList<>(list);
+                        expected.sort(comparator.reversed());
+                        for (int k : new int[]{0, 1, 5, size / 2, size, size + 3}) {
+                            Assert.assertEquals(context + ", k = " + k, expected.subList(0, Math.min(k, size)),
+                                    parallelism.topK(threads, list, k, comparator));
+                        }
+                        for (int n : new int[]{0, size / 3, size - 1}) {
+                            if (n >= 0 && n < size) {
+                                Integer element = parallelism.nthElement(threads, list, n, comparator);
+                                Assert.assertEquals(context + ", n = " + n,
+                                        0, comparator.compare(expected.get(size - 1 - n), element));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        IterativeParallelism parallelism = new IterativeParallelism();
+        Assert.assertEquals(Arrays.asList(5, 4), parallelism.topK(2, new LinkedList<>(Arrays.asList(3, 5, 1, 4)), 2,
+                Integer::compare));
+        try {
+            parallelism.topK(2, Arrays.asList(1, 2), -1, Integer::compare);
+            Assert.fail("negative k should throw IllegalArgumentException");
+        } catch (IllegalArgumentException ignored) {
+        }
+        try {
+            parallelism.nthElement(2, Arrays.asList(1, 2), 2, Integer::compare);
+            Assert.fail("n out of range should throw IndexOutOfBoundsException");
+        } catch (IndexOutOfBoundsException ignored) {
+        }
+    }
+
+    @Test(timeout = 60_000)
+    public void test11_groupingBy() throws InterruptedException {
+        Random random = new Random(2050);
+        for (IterativeParallelism parallelism : Arrays.asList(new IterativeParallelism(), new IterativeParallelism(true))) {
+            for (int threads : new int[]{1, 2, 3, 5, 8}) {
+                for (int size : new int[]{0, 1, 2, 7, 1_000, 100_000}) {
+                    List<Integer> list = randomList(random, size);
+                    String context = "threads = " + threads + ", size = " + size;
+                    Function<Integer, Integer> classifier = e -> Math.floorMod(e, 17);
+
+                    // toList and joining depend on order, so groups should keep order of list
+                    Assert.assertEquals(context, list.stream().collect(Collectors.groupingBy(classifier)),
+                            parallelism.groupingBy(threads, list, classifier, Collectors.toList()));
+                    Assert.assertEquals(context,
+                            list.stream().collect(Collectors.groupingBy(e -> e / 1000,
+                                    Collectors.mapping(Object::toString, Collectors.joining(",")))),
+                            parallelism.groupingBy(threads, list, e -> e / 1000,
+                                    Collectors.mapping(Object::toString, Collectors.joining(","))));
+                    Assert.assertEquals(context,
+                            list.stream().collect(Collectors.groupingBy(classifier, Collectors.counting())),
+                            parallelism.histogram(threads, list, classifier));
+
+                    long[] expected = new long[17];
+                    list.forEach(e -> expected[classifier.apply(e)]++);
+                    Assert.assertArrayEquals(context, expected,
+                            parallelism.histogram(threads, list, e -> Math.floorMod(e, 17), 17));
+                }
+            }
+        }
+    }
+}
@@ -2,10 +2,12 @@ package ru.ifmo.ctddev.koroleva.mapper;
 
 import info.kgeorgiy.java.advanced.mapper.ParallelMapper;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Queue;
+import java.util.RandomAccess;
 import java.util.function.Function;
 
 /**
@@ -36,6 +38,18 @@ public class ParallelMapperImpl implements ParallelMapper {
      * @param threadCount count of threads that should make calculations.
      */
     public ParallelMapperImpl(int threadCount) {
+        this(threadCount, false);
+    }
+
+    /**
+     * Constructor that makes <tt>threadCount</tt> threads and starts them.
+     * Daemon threads don't prevent JVM from exiting, so mapper, which is shared and lives
+     * as long as the application, may be left unclosed.
+     *
+     * @param threadCount count of threads that should make calculations.
+     * @param daemon <tt>true</tt>, if threads should be daemon threads.
+     */
+    public ParallelMapperImpl(int threadCount, boolean daemon) {
         queue = new LinkedList<>();
         this.threadCount = threadCount;
         threads = new Thread[threadCount];
@@ -60,6 +74,7 @@ public class ParallelMapperImpl implements ParallelMapper {
                         }
                     }
             );
+            threads[i].setDaemon(daemon);
             threads[i].start();
         }
     }
@@ -67,6 +82,7 @@ public class ParallelMapperImpl implements ParallelMapper {
 
     /**
      * Add tasks to calculate <tt>function</tt> on <tt>list</tt> elements.
+     * List without fast random access is copied into an array first.
      *
      * @param function function to calculate.
      * @param list     elements, on which function should be calculated.
@@ -75,47 +91,53 @@ public class ParallelMapperImpl implements ParallelMapper {
      * @return list of results of calculating function on elements of list.
      * @throws InterruptedException  if something was interrupted.
      * @throws IllegalStateException if there is a try to add something to queue after closing.
+     * @throws RuntimeException      if function throws an exception on some element, when all tasks are done,
+     *                               with first thrown exception as cause and others suppressed.
+     * @throws Error                 if function throws an error on some element, when all tasks are done.
+     *                               The error itself is thrown with other failures suppressed.
      */
     @Override
     public <T, R> List<R> map(Function<? super T, ? extends R> function, List<? extends T> list)
             throws InterruptedException {
-        synchronized (this) {
-            if (isClosed) {
-                throw new IllegalStateException("ParallelMapperImpl was already closed");
-            }
-        }
+        List<? extends T> elements = (list instanceof RandomAccess) ? list : new ArrayList<>(list);
+        return mapRandomAccess(function, elements);
+    }
+
+    private <T, R> List<R> mapRandomAccess(Function<? super T, ? extends R> function, List<? extends T> list)
+            throws InterruptedException {
         int cnt = Math.min(threadCount, list.size());
         @SuppressWarnings("unchecked")
         R[] results = (R[]) new Object[list.size()];
-
+        if (cnt == 0) {
+            return Arrays.asList(results);
+        }
+        Throwable[] errors = new Throwable[cnt];
 
         final Integer[] counter = {0};
-        for (int j = 0; j < cnt - 1; j++) {
-            final int jj = j;
-            synchronized (queue) {
+        synchronized (queue) {
+            if (isClosed) {
+                throw new IllegalStateException("ParallelMapperImpl was already closed");
+            }
+            for (int j = 0; j < cnt; j++) {
+                final int jj = j;
+                final int from = j * (list.size() / cnt);
+                final int to = (j == cnt - 1) ? list.size() : (j + 1) * (list.size() / cnt);
                 queue.add(() -> {
-                    for (int i = jj * (list.size() / cnt); i < (jj + 1) * (list.size() / cnt); i++) {
-                        results[i] = function.apply(list.get(i));
-                    }
-                    synchronized (counter) {
-                        counter[0]++;
-                        counter.notify();
+                    try {
+                        for (int i = from; i < to; i++) {
+                            results[i] = function.apply(list.get(i));
+                        }
+                    } catch (Throwable e) {
+                        errors[jj] = e;
+                    } finally {
+                        synchronized (counter) {
+                            counter[0]++;
+                            counter.notify();
+                        }
                     }
                 });
-                queue.notify();
             }
-        }
-        synchronized (queue) {
-            queue.add(() -> {
-                for (int i = (list.size() / cnt) * (cnt - 1); i < list.size(); i++) {
-                    results[i] = function.apply(list.get(i));
-                }
-                synchronized (counter) {
-                    counter[0]++;
-                    counter.notify();
-                }
-            });
-            queue.notify();
+            queue.notifyAll();
         }
 
         synchronized (counter) {
@@ -123,6 +145,27 @@ public class ParallelMapperImpl implements ParallelMapper {
                 counter.wait();
             }
         }
+
+        Throwable first = null;
+        for (Throwable error : errors) {
+            if (error != null && (first == null || (error instanceof Error && !(first instanceof Error)))) {
+                first = error;
+            }
+        }
+        if (first != null) {
+            Throwable failure = (first instanceof Error)
+                    ? first
+                    : new RuntimeException("Function failed on one of elements", first);
+            for (Throwable error : errors) {
+                if (error != null && error != first) {
+                    failure.addSuppressed(error);
+                }
+            }
+            if (failure instanceof Error) {
+                throw (Error) failure;
+            }
+            throw (RuntimeException) failure;
+        }
         return Arrays.asList(results);
     }
 
@@ -135,17 +178,15 @@ public class ParallelMapperImpl implements ParallelMapper {
      */
     @Override
     public void close() throws InterruptedException {
-        synchronized (this) {
+        synchronized (queue) {
             if (!isClosed) {
                 isClosed = true;
                 for (int i = 0; i < threadCount; i++) {
-                    synchronized (queue) {
-                        queue.add(() -> {
-                            throw new ClosedException();
-                        });
-                        queue.notify();
-                    }
+                    queue.add(() -> {
+                        throw new ClosedException();
+                    });
                 }
+                queue.notifyAll();
             }
         }
     }
@@ -0,0 +1,108 @@
+package ru.ifmo.ctddev.koroleva.mapper.test;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.junit.runners.MethodSorters;
+import ru.ifmo.ctddev.koroleva.mapper.ParallelMapperImpl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Tests of {@link ParallelMapperImpl}, which are not covered by the course tests:
+ * failures of the mapped function and closing.
+ *
+ * Usage: <tt>java org.junit.runner.JUnitCore ru.ifmo.ctddev.koroleva.mapper.test.ParallelMapperImplTest</tt>.
+ */
+@RunWith(JUnit4.class)
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class ParallelMapperImplTest {
+    private static final int THREADS = 3;
+
+    private static List<Integer> range(int size) {
+        List<Integer> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(i);
+        }
+        return list;
+    }
+
+    private static void checkWorks(ParallelMapperImpl mapper) throws InterruptedException {
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            expected.add(i * i);
+        }
+        Assert.assertEquals(expected, mapper.map(i -> i * i, range(100)));
+    }
+
+    @Test(timeout = 10_000)
+    public void test01_exceptions() throws InterruptedException {
+        ParallelMapperImpl mapper = new ParallelMapperImpl(THREADS);
+        try {
+            for (int attempt = 0; attempt < 50; attempt++) {
+                try {
+                    mapper.map(i -> {
+                        if (i % 10 == 0) {
+                            throw new IllegalArgumentException("element " + i);
+                        }
+                        return i;
+                    }, range(100));
+                    Assert.fail("map should throw");
+                } catch (RuntimeException e) {
+                    Assert.assertTrue("cause should be the thrown exception",
+                            e.getCause() instanceof IllegalArgumentException);
+                    Assert.assertEquals("each part should report its failure", THREADS - 1, e.getSuppressed().length);
+                }
+            }
+            checkWorks(mapper);
+            Assert.assertEquals(Collections.emptyList(), mapper.map(Function.identity(), Collections.emptyList()));
+        } finally {
+            mapper.close();
+        }
+    }
+
+    @Test(timeout = 10_000)
+    public void test02_errors() throws InterruptedException {
+        ParallelMapperImpl mapper = new ParallelMapperImpl(THREADS);
+        try {
+            StackOverflowError error = new StackOverflowError();
+            try {
+                mapper.map(i -> {
+                    if (i == 99) {
+                        throw error;
+                    }
+                    if (i == 0) {
+                        throw new IllegalStateException();
+                    }
+                    return i;
+                }, range(100));
+                Assert.fail("map should throw");
+            } catch (StackOverflowError e) {
+                Assert.assertSame("error should be thrown as is", error, e);
+                Assert.assertEquals(1, e.getSuppressed().length);
+                Assert.assertTrue(e.getSuppressed()[0] instanceof IllegalStateException);
+            }
+            checkWorks(mapper);
+        } finally {
+            mapper.close();
+        }
+    }
+
+    @Test(timeout = 10_000)
+    public void test03_close() throws InterruptedException {
+        ParallelMapperImpl mapper = new ParallelMapperImpl(THREADS, true);
+        checkWorks(mapper);
+        mapper.close();
+        mapper.close();
+        try {
+            mapper.map(Function.identity(), range(10));
+            Assert.fail("map after close should throw IllegalStateException");
+        } catch (IllegalStateException ignored) {
+        }
+    }
+}